@@ -0,0 +1,41 @@
+package com.bomberman.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// JMH entry point that always attaches the GC profiler, so every run reports
+// allocation rate (gc.alloc.rate.norm) next to throughput. Accepts the usual JMH flags;
+// the listing and help flags (-l, -lp, -lprof, -lrf, -h) answer without running anything.
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp()) {
+            cli.showHelp();
+            return;
+        }
+        if (cli.shouldListProfilers()) {
+            cli.listProfilers();
+            return;
+        }
+        if (cli.shouldListResultFormats()) {
+            cli.listResultFormats();
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(cli)
+                .addProfiler(GCProfiler.class)
+                .build();
+        Runner runner = new Runner(options);
+        if (cli.shouldList()) {
+            runner.list();
+        } else if (cli.shouldListWithParams()) {
+            runner.listWithParams(cli);
+        } else {
+            runner.run();
+        }
+    }
+}
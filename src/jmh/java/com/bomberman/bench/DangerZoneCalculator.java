@@ -0,0 +1,39 @@
+package com.bomberman.bench;
+
+import com.bomberman.model.GameMap;
+
+// Benchmark baseline only: the per-tick danger zone builder the bot used before DangerIndex
+// (see EngineBenchmarks.calculateDangerZones). Nothing in the bot itself uses it.
+public class DangerZoneCalculator {
+    private int[] rayScratch = new int[0];
+
+    // Build a danger zone (indexed by cell id) for a hypothetical bomb placed at bombCell
+    public boolean[] buildBombDangerZone(GameMap map, int bombCell, int range) {
+        if (map == null || !map.isLoaded()) return null;
+        boolean[] dangerZone = new boolean[map.getCellCount()];
+        markBomb(dangerZone, map, bombCell, range);
+        return dangerZone;
+    }
+
+    // Mark a bomb's cross-shaped blast into an existing zone - O(range)
+    public void markBomb(boolean[] dangerZone, GameMap map, int bombCell, int range) {
+        if (bombCell < 0) return;
+
+        // Mark center
+        dangerZone[bombCell] = true;
+
+        // Mark 4 directions from the bomb
+        for (int dir = 0; dir < 4; dir++) {
+            markDangerInDirection(dangerZone, map, bombCell, dir, range);
+        }
+    }
+
+    // Blast rays come from the map's BlastRayTable, the one ray walker every blast uses
+    private void markDangerInDirection(boolean[] dangerZone, GameMap map, int startCell, int dir, int range) {
+        if (rayScratch.length < range) rayScratch = new int[range];
+        int n = map.getRays().walkRay(startCell, dir, range, rayScratch);
+        for (int i = 0; i < n; i++) {
+            dangerZone[rayScratch[i]] = true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.bomberman.bench;
+
+import com.bomberman.engine.*;
+import com.bomberman.model.*;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Hot paths of one decision tick. Run with the GC profiler (BenchmarkMain adds it by default)
+// to get allocation rate next to throughput.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmarks {
+
+    @Param({"15", "31", "61"})
+    public int mapSize;
+
+    @Param({"0.2", "0.5"})
+    public double chestDensity;
+
+    @Param({"1", "8", "32"})
+    public int bombCount;
+
+    @Param({"2", "6"})
+    public int explosionRange;
+
+    private GameState state;
+    private GameSnapshot snapshot;
+    private Bomber[] enemies;
+    private int moves;
+    private BombingStrategy strategy;       // Memo off: every call runs the search
+    private BombingStrategy cachedStrategy; // Memo on: after the first call every call is a hit
+    private DangerZoneCalculator calculator;
+    private DangerIndex dangerIndex;
+    private GameMap map;
+    private JSONArray mapJson;
+    private int myCell;
+    private int[] bombCells;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        state = MapFixture.buildState(mapSize, chestDensity, bombCount, explosionRange, 42L);
+        snapshot = state.snapshot();
+        strategy = new BombingStrategy();
+        strategy.setMemoize(false);
+        cachedStrategy = new BombingStrategy();
+        calculator = new DangerZoneCalculator();
+        map = snapshot.getGameMap();
+        mapJson = MapFixture.buildMap(mapSize, chestDensity, 42L);
+
+        Bomber me = snapshot.getMyBomber();
+        myCell = snapshot.cellAt(me.getX(), me.getY());
+
+        bombCells = new int[snapshot.getBombs().size()];
+        int i = 0;
+        for (Bomb bomb : snapshot.getBombs().values()) {
+            bombCells[i++] = snapshot.cellAt(bomb.x, bomb.y);
+        }
+        dangerIndex = new DangerIndex();
+        dangerIndex.reset(map);
+
+        enemies = new Bomber[3];
+        for (int e = 0; e < enemies.length; e++) {
+            enemies[e] = new Bomber(snapshot.getBombers().get("bench-enemy-" + e));
+        }
+    }
+
+    // One enemy player_move: the three enemies take turns walking a tile back and forth.
+    // Nothing reads the state in between, so this is the per-event cost alone.
+    @Benchmark
+    public int playerMove() {
+        Bomber enemy = enemies[moves % enemies.length];
+        enemy.setX(enemy.getX() + ((moves++ / enemies.length) % (2 * MapFixture.TILE) < MapFixture.TILE ? 1 : -1));
+        return state.updateBomber(enemy);
+    }
+
+    // Same move followed by the snapshot a decision would take: the copy-on-write cost
+    @Benchmark
+    public GameSnapshot playerMoveAndSnapshot() {
+        playerMove();
+        return state.snapshot();
+    }
+
+    @Benchmark
+    public BombTarget findBestBombingPosition() {
+        return strategy.findBestBombingPosition(snapshot, MapFixture.NOW);
+    }
+
+    @Benchmark
+    public List<String> findRetreatPath() {
+        return strategy.findRetreatPath(snapshot, myCell, explosionRange, MapFixture.NOW);
+    }
+
+    // Same queries on an unchanged board: the cost of a memo hit (hash the inputs, LRU lookup)
+    @Benchmark
+    public BombTarget findBestBombingPositionCached() {
+        return cachedStrategy.findBestBombingPosition(snapshot, MapFixture.NOW);
+    }
+
+    @Benchmark
+    public List<String> findRetreatPathCached() {
+        return cachedStrategy.findRetreatPath(snapshot, myCell, explosionRange, MapFixture.NOW);
+    }
+
+    // Baseline: the old GameState.calculateDangerZones, run every tick before DangerIndex. A fresh
+    // zone array with every bomb's blast marked by DangerZoneCalculator.
+    @Benchmark
+    public boolean[] calculateDangerZones() {
+        boolean[] combined = new boolean[map.getCellCount()];
+        for (int i = 0; i < bombCells.length; i++) {
+            calculator.markBomb(combined, map, bombCells[i], explosionRange);
+        }
+        return combined;
+    }
+
+    // DangerIndex rebuilt from every bomb; only a map load or a full bomb list pays this
+    @Benchmark
+    public int dangerIndexRebuild() {
+        dangerIndex.reset(map);
+        for (int i = 0; i < bombCells.length; i++) {
+            dangerIndex.addBomb(i, bombCells[i], explosionRange);
+        }
+        return dangerIndex.getBombCount();
+    }
+
+    // Incremental path that replaced calculateDangerZones: one new_bomb plus its bomb_explode
+    @Benchmark
+    public boolean dangerIndexBombEvent() {
+        dangerIndex.addBomb(-1, myCell, explosionRange);
+        boolean danger = dangerIndex.isDanger(myCell);
+        dangerIndex.removeBomb(-1);
+        return danger;
+    }
+
+    @Benchmark
+    public boolean[] buildBombDangerZone() {
+        return calculator.buildBombDangerZone(map, myCell, explosionRange);
+    }
+
+    @Benchmark
+    public GameMap parseMap() {
+        GameMap parsed = new GameMap();
+        parsed.parseMap(mapJson);
+        return parsed;
+    }
+}
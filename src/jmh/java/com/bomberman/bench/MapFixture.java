@@ -0,0 +1,117 @@
+package com.bomberman.bench;
+
+import com.bomberman.engine.GameState;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+// Seeded game setups for the benchmarks: a classic bomberman layout (border + pillar walls),
+// random chests, our bomber near the center, a few enemies and a set of live bombs.
+public final class MapFixture {
+    public static final int TILE = 40;
+    public static final String MY_UID = "bench-me";
+    public static final long NOW = 1_000_000L; // Game clock the fixture's bombs were just placed at
+
+    private MapFixture() {
+    }
+
+    public static JSONArray buildMap(int size, double chestDensity, long seed) {
+        Random random = new Random(seed);
+        int center = size / 2;
+        JSONArray rows = new JSONArray();
+        for (int r = 0; r < size; r++) {
+            JSONArray row = new JSONArray();
+            for (int c = 0; c < size; c++) {
+                boolean border = r == 0 || c == 0 || r == size - 1 || c == size - 1;
+                boolean pillar = r % 2 == 0 && c % 2 == 0;
+                boolean spawn = Math.abs(r - center) + Math.abs(c - center) <= 1;
+                if (border || pillar) {
+                    row.put("W");
+                } else if (!spawn && random.nextDouble() < chestDensity) {
+                    row.put("C");
+                } else {
+                    row.put(JSONObject.NULL);
+                }
+            }
+            rows.put(row);
+        }
+        return rows;
+    }
+
+    public static JSONArray chestsOf(JSONArray map) {
+        JSONArray chests = new JSONArray();
+        for (int r = 0; r < map.length(); r++) {
+            JSONArray row = map.getJSONArray(r);
+            for (int c = 0; c < row.length(); c++) {
+                if ("C".equals(row.opt(c))) {
+                    chests.put(new JSONObject().put("x", c * TILE).put("y", r * TILE).put("size", TILE));
+                }
+            }
+        }
+        return chests;
+    }
+
+    public static List<int[]> emptyCells(JSONArray map) {
+        List<int[]> cells = new ArrayList<>();
+        for (int r = 0; r < map.length(); r++) {
+            JSONArray row = map.getJSONArray(r);
+            for (int c = 0; c < row.length(); c++) {
+                if (row.isNull(c)) cells.add(new int[]{r, c});
+            }
+        }
+        return cells;
+    }
+
+    public static JSONObject bomber(String uid, int row, int col, int explosionRange) {
+        return new JSONObject()
+                .put("uid", uid)
+                .put("x", col * TILE + TILE / 2)
+                .put("y", row * TILE + TILE / 2)
+                .put("speed", 1.0)
+                .put("orient", "UP")
+                .put("isAlive", true)
+                .put("explosionRange", explosionRange)
+                .put("bombCount", 1);
+    }
+
+    public static JSONObject bomb(int id, String uid, int row, int col) {
+        return new JSONObject()
+                .put("id", id)
+                .put("uid", uid)
+                .put("x", col * TILE + TILE / 2)
+                .put("y", row * TILE + TILE / 2)
+                .put("lifeTime", 5000)
+                .put("createdAt", NOW + id * 100L);
+    }
+
+    // Fully populated game state, built through the same operations the socket listeners use
+    public static GameState buildState(int size, double chestDensity, int bombCount, int explosionRange, long seed) {
+        Random random = new Random(seed);
+        JSONArray map = buildMap(size, chestDensity, seed);
+        List<int[]> empty = emptyCells(map);
+        int center = size / 2;
+
+        JSONArray bombers = new JSONArray();
+        bombers.put(bomber(MY_UID, center, center, explosionRange));
+        for (int i = 0; i < 3; i++) {
+            int[] cell = empty.get(random.nextInt(empty.size()));
+            bombers.put(bomber("bench-enemy-" + i, cell[0], cell[1], explosionRange));
+        }
+
+        JSONArray bombs = new JSONArray();
+        for (int i = 0; i < bombCount; i++) {
+            int[] cell = empty.get(random.nextInt(empty.size()));
+            bombs.put(bomb(i + 1, "bench-enemy-" + (i % 3), cell[0], cell[1]));
+        }
+
+        GameState state = new GameState();
+        state.parseMap(map);
+        state.parseBombers(bombers);
+        state.setMyUid(MY_UID);
+        state.parseBombs(bombs);
+        state.parseChests(chestsOf(map));
+        state.setGameStarted(true);
+        return state;
+    }
+}
@@ -1,40 +1,113 @@
 package com.bomberman;
 
 import com.bomberman.engine.*;
+import com.bomberman.metrics.Metrics;
+import com.bomberman.metrics.MetricsServer;
 import com.bomberman.model.*;
+import com.bomberman.planner.MctsPlanner;
+import com.bomberman.replay.EventRecorder;
 import io.socket.client.IO;
 import io.socket.client.Socket;
-import io.socket.emitter.Emitter;
-import org.json.JSONArray;
+import okhttp3.OkHttpClient;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class BombermanBot {
+public class BombermanBot implements CommandSink {
     private Socket socket;
     private GameState gameState;
-    private BombingStrategy strategy;
+    private BotController controller;
     private String myUid;
     private boolean isGameStarted = false;
-    private ScheduledExecutorService scheduler;
+    private DecisionScheduler scheduler;
+    private final CommandChannel commands;
+    private EventApplier events;
+    private volatile EventRecorder recorder;
+    private final AtomicLong pendingEventNanos = new AtomicLong(); // Oldest event not yet answered by a command, 0 if none
+    private static final AtomicLong BOT_IDS = new AtomicLong(); // Names the command threads of hosted bots
 
     public BombermanBot(String serverUrl, String token) throws URISyntaxException {
+        this(serverUrl, token, null, null);
+    }
+
+    // Hosted session (BotHost): decisions run on a shared pool and the socket uses a shared
+    // HTTP/WebSocket client; null for either falls back to a private one
+    public BombermanBot(String serverUrl, String token, ScheduledExecutorService decisionPool,
+                        OkHttpClient http) throws URISyntaxException {
         gameState = new GameState();
-        strategy = new BombingStrategy(gameState);
-        scheduler = Executors.newScheduledThreadPool(1);
+        controller = new BotController(this);
+        controller.setPlanner(plannerFromEnv());
+        configureTargetSearch(controller.getStrategy());
+        events = new EventApplier(gameState);
+        scheduler = new DecisionScheduler(this::runDecision, this::nextDecisionDelayMs, decisionPool);
+        gameState.addChangeListener(new StateChangeListener() {
+            // New paths and pickups are worth an immediate re-plan, whichever event revealed them
+            @Override
+            public void onCellOpened(int cell) {
+                scheduler.signal();
+            }
+
+            @Override
+            public void onItemAppeared(int cell, Item item) {
+                scheduler.signal();
+            }
+        });
 
         IO.Options options = new IO.Options();
         options.auth = Collections.singletonMap("token", token);
         options.reconnection = true;
         options.reconnectionDelay = 1000;
         options.timeout = 10000;
-        
+        if (http != null) {
+            options.callFactory = http;
+            options.webSocketFactory = http;
+            options.forceNew = true; // One connection per token, never multiplexed with another bot
+        }
+
         socket = IO.socket(serverUrl, options);
+        commands = new CommandChannel((event, payload) -> socket.emit(event, payload), "bot-" + BOT_IDS.incrementAndGet());
         setupEventHandlers();
         
-        System.out.println("Bot initialized with pathfinding (BFS & A*)");
+        System.out.println("Bot initialized with pathfinding (BFS & earliest arrival)");
+    }
+
+    // BOT_PLANNER=mcts switches decisions to tree search; null keeps the heuristic strategy
+    private static MctsPlanner plannerFromEnv() {
+        if (!"mcts".equalsIgnoreCase(System.getenv("BOT_PLANNER"))) return null;
+        String budget = System.getenv("BOT_PLAN_BUDGET_MS");
+        String workers = System.getenv("BOT_PLAN_WORKERS");
+        return new MctsPlanner(
+                budget != null && !budget.isEmpty() ? Long.parseLong(budget) : 30,
+                workers != null && !workers.isEmpty() ? Integer.parseInt(workers) : 1);
+    }
+
+    // BOT_SEARCH_RADIUS widens the bomb target search; BOT_SEARCH_THREADS > 1 evaluates its
+    // candidates on a dedicated pool, one per process so hosted bots share it
+    private static void configureTargetSearch(BombingStrategy strategy) {
+        String radius = System.getenv("BOT_SEARCH_RADIUS");
+        if (radius != null && !radius.isEmpty()) strategy.setSearchRadius(Integer.parseInt(radius));
+        String threads = System.getenv("BOT_SEARCH_THREADS");
+        if (threads != null && !threads.isEmpty() && Integer.parseInt(threads) > 1) {
+            strategy.setSearchPool(targetSearchPool(Integer.parseInt(threads)));
+        }
+    }
+
+    private static ForkJoinPool targetSearchPool;
+
+    private static synchronized ForkJoinPool targetSearchPool(int threads) {
+        if (targetSearchPool == null) {
+            targetSearchPool = new ForkJoinPool(threads, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("target-search-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+        return targetSearchPool;
     }
 
     private void setupEventHandlers() {
@@ -47,17 +120,9 @@ public class BombermanBot {
             System.out.println("Disconnected from server");
         });
 
-        socket.on("user", onUserJoined);
-        socket.on("start", onGameStart);
-        socket.on("player_move", onPlayerMove);
-        socket.on("new_bomb", onNewBomb);
-        socket.on("bomb_explode", onBombExplode);
-        socket.on("map_update", onMapUpdate);
-        socket.on("user_die_update", onUserDie);
-        socket.on("chest_destroyed", onChestDestroyed);
-        socket.on("item_collected", onItemCollected);
-        socket.on("new_enemy", onNewEnemy);
-        socket.on("finish", onGameFinish);
+        for (String event : EventApplier.EVENTS) {
+            socket.on(event, args -> onEvent(event, args));
+        }
     }
 
     private void joinRoom() {
@@ -65,367 +130,135 @@ public class BombermanBot {
         System.out.println("Joined room");
     }
 
-    private Emitter.Listener onUserJoined = args -> {
+    // Single entry point for server events: record, apply to the state, wake the decision loop
+    private void onEvent(String event, Object[] args) {
+        long received = System.nanoTime();
+        EventRecorder rec = recorder;
+        if (rec != null) rec.record(event, args);
         try {
-            JSONObject data = (JSONObject) args[0];
-            System.out.println("Received user data" +data.toString());
-            
-            // Parse map
-            JSONArray mapArray = data.getJSONArray("map");
-            gameState.parseMap(mapArray);
-            
-            // Parse bombers
-            JSONArray bombers = data.getJSONArray("bombers");
-            gameState.parseBombers(bombers);
-            
-            // Find my UID
-            for (int i = 0; i < bombers.length(); i++) {
-                JSONObject bomber = bombers.getJSONObject(i);
-                myUid = bomber.getString("uid");
-                gameState.setMyUid(myUid);
-                break; // First bomber is me
+            boolean signal = events.apply(event, args.length > 0 ? args[0] : null);
+            switch (event) {
+                case EventApplier.USER:
+                    myUid = events.getMyUid();
+                    isGameStarted = true;
+                    startBotLogic();
+                    System.out.println("Bot started moving!");
+                    break;
+                case EventApplier.START:
+                    isGameStarted = true;
+                    // Bot logic is already running since the user event; this just confirms the start
+                    break;
+                case EventApplier.FINISH:
+                    isGameStarted = false;
+                    scheduler.stop();
+                    break;
             }
-            
-            // Parse bombs
-            if (data.has("bombs")) {
-                JSONArray bombs = data.getJSONArray("bombs");
-                gameState.parseBombs(bombs);
-            }
-            
-            // Parse chests
-            if (data.has("chests")) {
-                JSONArray chests = data.getJSONArray("chests");
-                gameState.parseChests(chests);
-            }
-            
-            // Parse items
-            if (data.has("items")) {
-                JSONArray items = data.getJSONArray("items");
-                gameState.parseItems(items);
-            }
-            
-            System.out.println("Game state initialized. My UID: " + myUid);
-            
-            // Start bot immediately in practice mode (no start event)
-            // In competition mode, wait for start event
-            isGameStarted = true;
-            gameState.setGameStarted(true);
-            startBotLogic();
-            System.out.println("Bot started moving!");
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    };
-
-    private Emitter.Listener onGameStart = args -> {
-        // This event only fires in competition mode
-        isGameStarted = true;
-        gameState.setGameStarted(true);
-        System.out.println("Game started! (Competition mode)");
-        // Don't start bot logic here as it's already started in onUserJoined
-        // This just confirms the competition has begun
-    };
-
-    private Emitter.Listener onPlayerMove = args -> {
-        try {
-            JSONObject bomber = (JSONObject) args[0];
-            gameState.updateBomber(bomber);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    };
-
-    private Emitter.Listener onNewBomb = args -> {
-        try {
-            JSONObject bomb = (JSONObject) args[0];
-            gameState.addBomb(bomb);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    };
-
-    private Emitter.Listener onBombExplode = args -> {
-        try {
-            JSONObject data = (JSONObject) args[0];
-            int bombId = data.getInt("id");
-            gameState.removeBomb(bombId);
-            System.out.println("Bomb exploded "+ data.toString());
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    };
-
-    private Emitter.Listener onMapUpdate = args -> {
-        try {
-            JSONObject data = (JSONObject) args[0];
-            if (data.has("chests")) {
-                gameState.parseChests(data.getJSONArray("chests"));
-            }
-            if (data.has("items")) {
-                gameState.parseItems(data.getJSONArray("items"));
+            if (signal) {
+                pendingEventNanos.compareAndSet(0, received);
+                scheduler.signal();
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-    };
-
-    private Emitter.Listener onUserDie = args -> {
-        try {
-            JSONObject data = (JSONObject) args[0];
-            if (data.has("killed")) {
-                JSONObject killed = data.getJSONObject("killed");
-                String killedUid = killed.getString("uid");
-                gameState.removeBomber(killedUid);
-            }
-            if (data.has("killer")) {
-                gameState.updateBomber(data.getJSONObject("killer"));
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    };
-
-    private Emitter.Listener onChestDestroyed = args -> {
-        try {
-            JSONObject data = (JSONObject) args[0];
-            int x = data.getInt("x");
-            int y = data.getInt("y");
-            gameState.removeChest(x, y);
-            
-            if (data.has("item") && !data.isNull("item")) {
-                JSONObject item = data.getJSONObject("item");
-                gameState.addItem(item);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    };
-
-    private Emitter.Listener onItemCollected = args -> {
-        try {
-            JSONObject data = (JSONObject) args[0];
-            if (data.has("item")) {
-                JSONObject item = data.getJSONObject("item");
-                int x = item.getInt("x");
-                int y = item.getInt("y");
-                gameState.removeItem(x, y);
-            }
-            if (data.has("bomber") && !data.isNull("bomber")) {
-                gameState.updateBomber(data.getJSONObject("bomber"));
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    };
-
-    private Emitter.Listener onNewEnemy = args -> {
-        try {
-            JSONObject data = (JSONObject) args[0];
-            if (data.has("bomber")) {
-                gameState.updateBomber(data.getJSONObject("bomber"));
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    };
-
-    private Emitter.Listener onGameFinish = args -> {
-        System.out.println("Game finished!");
-        isGameStarted = false;
-        gameState.setGameStarted(false);
-        scheduler.shutdown();
-    };
+    }
 
     private void startBotLogic() {
-        // Prevent starting multiple times
-        if (scheduler.isShutdown() || scheduler.isTerminated()) {
-            scheduler = Executors.newScheduledThreadPool(1);
-        }
-
-        new Thread(() -> {
-            while (true) {
-                try {
-                    // Wait for game to start in competition mode
-                    if (!gameState.isGameStarted()) {
-                        Thread.sleep(100);
-                        continue;
-                    }
-
-                    makeDecision();
-                    Thread.sleep(100); // Decision every 100ms
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        }).start();
+        // Start is idempotent, so a reconnect doesn't spawn a second loop
+        scheduler.start();
+        scheduler.signal();
     }
 
-    private enum BotState {
-        IDLE,
-        MOVING_TO_BOMB_POSITION,
-        PLACING_BOMB,
-        RETREATING
+    private void runDecision() {
+        // Wait for game to start in competition mode
+        GameSnapshot state = gameState.snapshot(); // Pin one consistent version for the whole tick
+        if (!state.isGameStarted()) return;
+        controller.decide(state);
     }
 
-    private BotState currentState = BotState.IDLE;
-    private List<String> currentPath = null;
-    private int pathIndex = 0;
-    private BombTarget currentTarget = null;
-
-    private void makeDecision() {
-        Bomber myBot = gameState.getMyBomber();
-        if (myBot == null || !myBot.isAlive()) return;
-
-        // Calculate current danger zones
-        boolean[][] dangerZones = gameState.calculateDangerZones();
-
-        // PRIORITY: If we're in danger, retreat immediately (override any state)
-        if (gameState.isInDangerZone(myBot.getX(), myBot.getY(), dangerZones)) {
-            currentState = BotState.IDLE; // Reset state
-            currentPath = null;
-
-            String safeDirection = findSafeDirection(dangerZones);
-            if (safeDirection != null) {
-                move(safeDirection);
-            }
-            return;
-        }
-
-        // State machine for bombing strategy
-        switch (currentState) {
-            case IDLE:
-                // Look for bombing opportunities
-                if (myBot.getBombCount() > 0) {
-                    BombTarget target = strategy.findBestBombingPosition();
-                    if (target != null && target.isHasRetreat() && target.getScore() > 0) {
-                        currentTarget = target;
-                        currentPath = target.getPathToTarget();
-                        pathIndex = 0;
-
-                        if (currentPath == null || currentPath.isEmpty()) {
-                            // Already at bombing position
-                            currentState = BotState.PLACING_BOMB;
-                        } else {
-                            // Need to move to bombing position
-                            currentState = BotState.MOVING_TO_BOMB_POSITION;
-                        }
-
-                        System.out.println("Found bomb target: " + target);
-                    }
-                }
-
-                // If no bombing opportunity, explore
-                if (currentState == BotState.IDLE) {
-                    String exploreDirection = findSafeDirection(dangerZones);
-                    if (exploreDirection != null) {
-                        move(exploreDirection);
-                        return; // only one instruction per tick
-                    }
-                }
-                break;
-
-            case MOVING_TO_BOMB_POSITION:
-                // Follow path to bombing position
-                if (currentPath != null && pathIndex < currentPath.size()) {
-                    String direction = currentPath.get(pathIndex);
-                    move(direction);
-                    pathIndex++;
-                    return; // only one instruction per tick
-                } else {
-                    // Reached bombing position
-                    currentState = BotState.PLACING_BOMB;
-                }
-                break;
-
-            case PLACING_BOMB:
-                // Ensure retreat is possible BEFORE placing bomb
-                int[] myCell = gameState.coordToCell(myBot.getX(), myBot.getY());
-                List<String> retreatPath = strategy.findRetreatPath(myCell[0], myCell[1], myBot.getExplosionRange());
-
-                if (retreatPath != null && !retreatPath.isEmpty()) {
-                    placeBomb();
-                    System.out.println("Placed bomb at position");
-
-                    currentPath = retreatPath;
-                    pathIndex = 0;
-                    currentState = BotState.RETREATING;
-                    System.out.println("Retreating with path: " + retreatPath);
-                    return; // only one instruction per tick
-                } else {
-                    // Do not place bomb if cannot retreat; try to move to a safe direction
-                    currentState = BotState.IDLE;
-                    String safeDir = findSafeDirection(dangerZones);
-                    if (safeDir != null) {
-                        move(safeDir);
-                        return; // only one instruction per tick
-                    }
-                }
-                break;
-
-            case RETREATING:
-                // Follow retreat path
-                if (currentPath != null && pathIndex < currentPath.size()) {
-                    String direction = currentPath.get(pathIndex);
-                    move(direction);
-                    pathIndex++;
-                    return; // only one instruction per tick
-                } else {
-                    // Finished retreating
-                    System.out.println("Finished retreat, back to IDLE");
-                    currentState = BotState.IDLE;
-                    currentPath = null;
-                    currentTarget = null;
-                }
-                break;
-        }
+    // Fallback timer: re-decide when our bomber reaches its next tile (or its next planned step)
+    private long nextDecisionDelayMs() {
+        return controller.nextDecisionDelayMs(gameState.snapshot());
     }
 
-    private String findSafeDirection(boolean[][] dangerZones) {
-        Bomber myBot = gameState.getMyBomber();
-        int[] myCell = gameState.coordToCell(myBot.getX(), myBot.getY());
+    // Commands only enter the outbound queue here; the channel's thread does the socket I/O
+    @Override
+    public void move(String direction) {
+        recordEventToAction();
+        commands.move(direction);
+    }
 
-        String[] directions = {"UP", "DOWN", "LEFT", "RIGHT"};
-        int[][] deltas = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    @Override
+    public void placeBomb() {
+        recordEventToAction();
+        commands.placeBomb();
+    }
 
-        for (int i = 0; i < 4; i++) {
-            int newRow = myCell[0] + deltas[i][0];
-            int newCol = myCell[1] + deltas[i][1];
-            int[] newCoord = gameState.cellToCoord(newRow, newCol);
+    public CommandChannel getCommands() {
+        return commands;
+    }
 
-            if (gameState.isPositionWalkable(newCoord[0], newCoord[1]) &&
-                    !gameState.isInDangerZone(newCoord[0], newCoord[1], dangerZones)) {
-                return directions[i];
-            }
-        }
+    public void connect() {
+        commands.start();
+        socket.connect();
+    }
 
-        return null;
+    private void recordEventToAction() {
+        long received = pendingEventNanos.getAndSet(0);
+        if (received != 0) Metrics.EVENT_TO_ACTION.recordSince(received);
     }
-    private void move(String direction) {
-        JSONObject data = new JSONObject();
-        data.put("orient", direction);
-        socket.emit("move", data);
-        System.out.println("Moving: " + direction);
+
+    // Record every incoming event to a binary log for offline replay
+    public void setRecorder(EventRecorder recorder) {
+        this.recorder = recorder;
     }
 
-    private void placeBomb() {
-        socket.emit("place_bomb", new JSONObject());
-        System.out.println("Placing bomb");
+    // Record to a file, closed on JVM shutdown
+    public void recordTo(File file) throws IOException {
+        EventRecorder recorder = new EventRecorder(file);
+        setRecorder(recorder);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                recorder.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }));
+        System.out.println("Recording events to " + file);
     }
 
-    public void connect() {
-        socket.connect();
+    // Process-wide metrics: JMX always, HTTP when BOT_METRICS_PORT is set
+    static void startMetrics() throws IOException {
+        Metrics.registerJmx();
+        String metricsPort = System.getenv("BOT_METRICS_PORT");
+        if (metricsPort != null && !metricsPort.isEmpty()) {
+            new MetricsServer(Integer.parseInt(metricsPort)).start();
+        }
     }
 
     public void disconnect() {
         socket.disconnect();
-        scheduler.shutdown();
+        scheduler.stop();
+        commands.stop();
+        EventRecorder rec = recorder;
+        if (rec != null) {
+            try {
+                rec.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
     }
 
     public static void main(String[] args) {
         String serverUrl = System.getenv("SOCKET_SERVER");
         String token = System.getenv("BOT_TOKEN");
-        
+
+        // Several tokens: run them all in this JVM
+        if (System.getenv("BOT_TOKENS") != null || System.getenv("BOT_TOKENS_FILE") != null) {
+            BotHost.main(args);
+            return;
+        }
+
         if (serverUrl == null || token == null) {
             System.err.println("Missing environment variables!");
             System.exit(1);
@@ -433,6 +266,11 @@ public class BombermanBot {
         
         try {
             BombermanBot bot = new BombermanBot(serverUrl, token);
+            startMetrics();
+            String recordPath = System.getenv("BOT_RECORD");
+            if (recordPath != null && !recordPath.isEmpty()) {
+                bot.recordTo(new File(recordPath));
+            }
             bot.connect();
             
             // Keep the bot running
@@ -0,0 +1,112 @@
+package com.bomberman;
+
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs many bot sessions in one JVM: one BombermanBot per token with fully isolated game state,
+// sharing the decision thread pool, one HTTP/WebSocket client (and its thread pools) and the
+// per-map precomputation (BlastRayTable wall rays).
+public class BotHost {
+    private final List<BombermanBot> bots = new ArrayList<>();
+    private final ScheduledThreadPoolExecutor decisionPool;
+    private final OkHttpClient http;
+
+    public BotHost(String serverUrl, List<String> tokens, int decisionThreads) throws URISyntaxException {
+        AtomicInteger threadId = new AtomicInteger();
+        decisionPool = new ScheduledThreadPoolExecutor(decisionThreads, task -> {
+            Thread thread = new Thread(task, "decision-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        decisionPool.setRemoveOnCancelPolicy(true); // Fallback timers are cancelled on almost every event
+
+        // Each open WebSocket holds a dispatcher slot for its whole life in OkHttp 3,
+        // so the default limit of 5 per host would stall every bot after the fifth
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(Math.max(64, tokens.size() * 2));
+        dispatcher.setMaxRequestsPerHost(Math.max(64, tokens.size() * 2));
+        http = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .readTimeout(1, TimeUnit.MINUTES)
+                .build();
+
+        for (String token : tokens) {
+            bots.add(new BombermanBot(serverUrl, token, decisionPool, http));
+        }
+        System.out.println("Hosting " + bots.size() + " bots on " + decisionThreads + " decision threads");
+    }
+
+    public List<BombermanBot> getBots() {
+        return bots;
+    }
+
+    public void connect() {
+        for (BombermanBot bot : bots) bot.connect();
+    }
+
+    public void disconnect() {
+        for (BombermanBot bot : bots) bot.disconnect();
+        decisionPool.shutdownNow();
+        http.dispatcher().executorService().shutdown();
+        http.connectionPool().evictAll();
+    }
+
+    // BOT_TOKENS (comma or whitespace separated) and/or BOT_TOKENS_FILE (one per line, # comments)
+    static List<String> readTokens() throws IOException {
+        Set<String> tokens = new LinkedHashSet<>(); // Same token twice would fight over one seat
+        String inline = System.getenv("BOT_TOKENS");
+        if (inline != null) {
+            for (String token : inline.split("[,\\s]+")) {
+                if (!token.isEmpty()) tokens.add(token);
+            }
+        }
+        String file = System.getenv("BOT_TOKENS_FILE");
+        if (file != null && !file.isEmpty()) {
+            for (String line : Files.readAllLines(new File(file).toPath())) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) tokens.add(line);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    public static void main(String[] args) {
+        String serverUrl = System.getenv("SOCKET_SERVER");
+        try {
+            List<String> tokens = readTokens();
+            if (serverUrl == null || tokens.isEmpty()) {
+                System.err.println("Missing environment variables! Need SOCKET_SERVER and BOT_TOKENS or BOT_TOKENS_FILE");
+                System.exit(1);
+            }
+            String threads = System.getenv("BOT_DECISION_THREADS");
+            int decisionThreads = threads != null && !threads.isEmpty()
+                    ? Integer.parseInt(threads)
+                    : Math.min(tokens.size(), Runtime.getRuntime().availableProcessors());
+
+            BotHost host = new BotHost(serverUrl, tokens, Math.max(1, decisionThreads));
+            BombermanBot.startMetrics(); // Histograms aggregate over every hosted bot
+            String recordPath = System.getenv("BOT_RECORD");
+            if (recordPath != null && !recordPath.isEmpty()) {
+                for (int i = 0; i < host.bots.size(); i++) {
+                    host.bots.get(i).recordTo(new File(recordPath + "." + i));
+                }
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(host::disconnect));
+            host.connect();
+
+            // Keep the host running
+            Thread.currentThread().join();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.bomberman;
+
+import com.bomberman.engine.DecisionScheduler;
+import com.bomberman.metrics.Metrics;
+import com.bomberman.model.GameMap;
+import org.json.JSONObject;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Outbound commands for one bot. The decision thread only writes a command code into a
+// single-producer/single-consumer ring; a transport thread drains it and emits the shared
+// pre-built payloads, so deciding never touches the socket, the console or the allocator.
+// Decisions of one bot never overlap (DecisionScheduler), so there is one producer even when
+// they run on a shared pool.
+public class CommandChannel {
+    // Sends one event; the socket in a live game
+    public interface Emitter {
+        void emit(String event, JSONObject payload);
+    }
+
+    private static final int CAPACITY = 64; // Power of two; a few ticks of commands at most
+    private static final int MASK = CAPACITY - 1;
+    private static final int BOMB = 4;      // Codes 0-3 are GameMap.DIR_*
+    // A repeat within one server frame of the previous command is redundant: the server
+    // cannot act on the first one before the second arrives
+    private static final long DEDUPE_NANOS = (long) (1_000_000 * DecisionScheduler.SERVER_FRAME_MS);
+
+    // Built once and never modified after class init, so every channel shares them
+    private static final JSONObject[] PAYLOADS = new JSONObject[BOMB + 1];
+    private static final String[] EVENTS = new String[BOMB + 1];
+    private static final String[] LOG_LINES = new String[BOMB + 1];
+
+    static {
+        for (int dir = 0; dir < 4; dir++) {
+            PAYLOADS[dir] = new JSONObject().put("orient", GameMap.DIR_NAMES[dir]);
+            EVENTS[dir] = "move";
+            LOG_LINES[dir] = "Moving: " + GameMap.DIR_NAMES[dir];
+        }
+        PAYLOADS[BOMB] = new JSONObject();
+        EVENTS[BOMB] = "place_bomb";
+        LOG_LINES[BOMB] = "Placing bomb";
+    }
+
+    private final Emitter emitter;
+    private final String name;
+    private final int[] codes = new int[CAPACITY];
+    private final long[] queuedAt = new long[CAPACITY];
+
+    // Producer owns tail, consumer owns head; each only reads the other's
+    private volatile long head;
+    private volatile long tail;
+    private volatile boolean waiting;   // Consumer is about to park or parked
+    private volatile Thread thread;
+    private volatile boolean running;
+    private boolean verbose = true;
+
+    // Previous command offered (producer only)
+    private int lastCode = -1;
+    private long lastOfferAt;
+
+    private volatile long emitted;
+    private volatile long deduped;
+    private volatile long dropped;
+    private volatile int maxDepth;
+
+    public CommandChannel(Emitter emitter, String name) {
+        this.emitter = emitter;
+        this.name = name;
+    }
+
+    // Console line per emitted command, printed on the transport thread
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    // Idempotent: a second start while running keeps the existing thread.
+    // Commands left over from before a stop are stale by now and discarded.
+    public synchronized void start() {
+        if (running) return;
+        long stale = tail - head;
+        head = tail;
+        Metrics.COMMAND_QUEUE_DEPTH.addAndGet(-stale);
+        running = true;
+        thread = new Thread(this::drain, "commands-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Returns once the transport thread has exited, so a following start() can reset the
+    // ring indices without a late head write from the old drain loop. At most one emit long.
+    public synchronized void stop() {
+        running = false;
+        Thread t = thread;
+        thread = null;
+        if (t == null) return;
+        LockSupport.unpark(t);
+        if (t == Thread.currentThread()) return; // Stopped from an emit; the loop exits on return
+        boolean interrupted = false;
+        while (t.isAlive()) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    // --- Producer (decision thread): O(1), no allocation, never blocks ---
+    public boolean move(String direction) {
+        for (int dir = 0; dir < 4; dir++) {
+            if (GameMap.DIR_NAMES[dir].equals(direction)) return offer(dir);
+        }
+        return false;
+    }
+
+    public boolean placeBomb() {
+        return offer(BOMB);
+    }
+
+    private boolean offer(int code) {
+        long now = System.nanoTime();
+        if (code == lastCode && now - lastOfferAt < DEDUPE_NANOS) {
+            deduped++;
+            Metrics.COMMANDS_DEDUPED.incrementAndGet();
+            return true;
+        }
+        long t = tail;
+        long h = head;
+        if (t - h == CAPACITY) {
+            dropped++;
+            Metrics.COMMANDS_DROPPED.incrementAndGet();
+            return false;
+        }
+        int slot = (int) t & MASK;
+        codes[slot] = code;
+        queuedAt[slot] = now;
+        tail = t + 1; // Publishes the slot
+        lastCode = code;
+        lastOfferAt = now;
+        Metrics.COMMAND_QUEUE_DEPTH.incrementAndGet();
+        int depth = (int) (t + 1 - h);
+        if (depth > maxDepth) maxDepth = depth;
+        if (waiting) {
+            Thread consumer = thread;
+            if (consumer != null) LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    // --- Consumer (transport thread) ---
+    private void drain() {
+        Thread self = Thread.currentThread();
+        while (running && thread == self) {
+            long h = head;
+            if (h == tail) {
+                waiting = true;
+                if (h == tail && running) LockSupport.park(this); // Re-check after announcing
+                waiting = false;
+                continue;
+            }
+            int slot = (int) h & MASK;
+            int code = codes[slot];
+            long queued = queuedAt[slot];
+            head = h + 1; // Frees the slot
+            Metrics.COMMAND_QUEUE_DEPTH.decrementAndGet();
+            try {
+                emitter.emit(EVENTS[code], PAYLOADS[code]);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            Metrics.COMMAND_EMIT.recordSince(queued);
+            emitted++;
+            Metrics.COMMANDS_EMITTED.incrementAndGet();
+            if (verbose) System.out.println(LOG_LINES[code]);
+        }
+    }
+
+    // --- Counters ---
+    public int getQueueDepth() {
+        return (int) (tail - head);
+    }
+
+    public int getMaxQueueDepth() {
+        return maxDepth;
+    }
+
+    public long getEmitted() {
+        return emitted;
+    }
+
+    public long getDeduped() {
+        return deduped;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,335 @@
+package com.bomberman.engine;
+
+import com.bomberman.model.Bomber;
+import org.json.JSONObject;
+
+import java.util.*;
+
+// Struct-of-arrays bomber store. Every uid is interned once to a small slot id; after that,
+// updates write primitives in place and hot code addresses bombers by slot, never by string.
+// Snapshots share the arrays; a writer copies a field group only on its first write after a
+// snapshot, so the first player_move after one copies just the position arrays (a few ints per
+// bomber) and later moves write in place.
+public class BomberTable {
+    public static final int NO_SLOT = -1;
+
+    // Defaults for fields a payload leaves out, same as new Bomber(JSONObject)
+    private static final double DEFAULT_SPEED = 1.0;
+    private static final String DEFAULT_ORIENT = "UP";
+    private static final double DEFAULT_SIZE = 35.0;
+    private static final String DEFAULT_NAME = "unknown";
+    private static final int DEFAULT_RANGE = 2;
+    private static final int DEFAULT_BOMBS = 1;
+
+    private int count; // Slots in use, 0..count-1
+
+    // Identity (written on intern only)
+    private String[] uid = new String[4];
+    private Map<String, Integer> slots = new HashMap<>();
+
+    // Position group: changes on every player_move
+    private int[] x = new int[4];
+    private int[] y = new int[4];
+    private String[] orient = new String[4];
+
+    // Stats group: changes on pickups, deaths and bomb placement
+    private boolean[] alive = new boolean[4];
+    private boolean[] present = new boolean[4]; // False once removed (death or disconnect)
+    private double[] speed = new double[4];
+    private double[] size = new double[4];
+    private String[] name = new String[4];
+    private int[] score = new int[4];
+    private int[] range = new int[4];
+    private int[] bombCount = new int[4];
+    private int[] speedCount = new int[4];
+
+    private boolean identityShared;
+    private boolean positionShared;
+    private boolean statsShared;
+
+    public BomberTable() {
+    }
+
+    // Read-only view sharing the live arrays
+    private BomberTable(BomberTable source) {
+        count = source.count;
+        uid = source.uid;
+        slots = source.slots;
+        x = source.x;
+        y = source.y;
+        orient = source.orient;
+        alive = source.alive;
+        present = source.present;
+        speed = source.speed;
+        size = source.size;
+        name = source.name;
+        score = source.score;
+        range = source.range;
+        bombCount = source.bombCount;
+        speedCount = source.speedCount;
+    }
+
+    public BomberTable snapshot() {
+        identityShared = true;
+        positionShared = true;
+        statsShared = true;
+        return new BomberTable(this);
+    }
+
+    public void clear() {
+        count = 0;
+        uid = new String[uid.length];
+        slots = new HashMap<>();
+        identityShared = false;
+        positionShared = true; // Fresh slots are fully rewritten by intern, but old views keep theirs
+        statsShared = true;
+    }
+
+    // --- Interning ---
+    // Slot for a uid, allocating one (with default fields) on first sight - O(1) amortized
+    public int intern(String id) {
+        Integer slot = slots.get(id);
+        if (slot != null) return slot;
+        if (identityShared) {
+            uid = uid.clone();
+            slots = new HashMap<>(slots);
+            identityShared = false;
+        }
+        if (count == uid.length) grow(count * 2);
+        int s = count++;
+        uid[s] = id;
+        slots.put(id, s);
+
+        writablePosition();
+        x[s] = 0;
+        y[s] = 0;
+        orient[s] = DEFAULT_ORIENT;
+        writableStats();
+        alive[s] = true;
+        present[s] = true;
+        speed[s] = DEFAULT_SPEED;
+        size[s] = DEFAULT_SIZE;
+        name[s] = DEFAULT_NAME;
+        score[s] = 0;
+        range[s] = DEFAULT_RANGE;
+        bombCount[s] = DEFAULT_BOMBS;
+        speedCount[s] = 0;
+        return s;
+    }
+
+    public int slotOf(String id) {
+        if (id == null) return NO_SLOT;
+        Integer slot = slots.get(id);
+        return slot != null ? slot : NO_SLOT;
+    }
+
+    private void grow(int capacity) {
+        uid = Arrays.copyOf(uid, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        orient = Arrays.copyOf(orient, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        present = Arrays.copyOf(present, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        size = Arrays.copyOf(size, capacity);
+        name = Arrays.copyOf(name, capacity);
+        score = Arrays.copyOf(score, capacity);
+        range = Arrays.copyOf(range, capacity);
+        bombCount = Arrays.copyOf(bombCount, capacity);
+        speedCount = Arrays.copyOf(speedCount, capacity);
+        positionShared = false; // Fresh copies
+        statsShared = false;
+    }
+
+    private void writablePosition() {
+        if (!positionShared) return;
+        x = x.clone();
+        y = y.clone();
+        orient = orient.clone();
+        positionShared = false;
+    }
+
+    private void writableStats() {
+        if (!statsShared) return;
+        alive = alive.clone();
+        present = present.clone();
+        speed = speed.clone();
+        size = size.clone();
+        name = name.clone();
+        score = score.clone();
+        range = range.clone();
+        bombCount = bombCount.clone();
+        speedCount = speedCount.clone();
+        statsShared = false;
+    }
+
+    // --- In-place writes (copy a group only when a value actually changes) ---
+    public void setPosition(int s, int px, int py) {
+        if (x[s] == px && y[s] == py) return;
+        writablePosition();
+        x[s] = px;
+        y[s] = py;
+    }
+
+    public void setOrient(int s, String value) {
+        if (Objects.equals(orient[s], value)) return;
+        writablePosition();
+        orient[s] = value;
+    }
+
+    public void setAlive(int s, boolean value) {
+        if (alive[s] == value) return;
+        writableStats();
+        alive[s] = value;
+    }
+
+    public void setPresent(int s, boolean value) {
+        if (present[s] == value) return;
+        writableStats();
+        present[s] = value;
+    }
+
+    public void setSpeed(int s, double value) {
+        if (speed[s] == value) return;
+        writableStats();
+        speed[s] = value;
+    }
+
+    public void setSize(int s, double value) {
+        if (size[s] == value) return;
+        writableStats();
+        size[s] = value;
+    }
+
+    public void setName(int s, String value) {
+        if (Objects.equals(name[s], value)) return;
+        writableStats();
+        name[s] = value;
+    }
+
+    public void setScore(int s, int value) {
+        if (score[s] == value) return;
+        writableStats();
+        score[s] = value;
+    }
+
+    public void setRange(int s, int value) {
+        if (range[s] == value) return;
+        writableStats();
+        range[s] = value;
+    }
+
+    public void setBombCount(int s, int value) {
+        if (bombCount[s] == value) return;
+        writableStats();
+        bombCount[s] = value;
+    }
+
+    public void setSpeedCount(int s, int value) {
+        if (speedCount[s] == value) return;
+        writableStats();
+        speedCount[s] = value;
+    }
+
+    // Copy every field of a model object into its slot (model-object callers, simulator)
+    public int put(Bomber b) {
+        int s = intern(b.uid);
+        setPosition(s, b.x, b.y);
+        setOrient(s, b.orient);
+        setAlive(s, b.isAlive);
+        setPresent(s, true);
+        setSpeed(s, b.speed);
+        setSize(s, b.size);
+        setName(s, b.name);
+        setScore(s, b.score);
+        setRange(s, b.explosionRange);
+        setBombCount(s, b.bombCount);
+        setSpeedCount(s, b.speedCount);
+        return s;
+    }
+
+    // Write a player_move style payload into its slot. Keys it leaves out take the defaults,
+    // exactly like replacing the bomber with new Bomber(json), but no Bomber is built.
+    public int put(JSONObject json) {
+        int s = intern(json.optString("uid", ""));
+        setPosition(s, json.optInt("x", 0), json.optInt("y", 0));
+        setOrient(s, json.optString("orient", DEFAULT_ORIENT));
+        setAlive(s, json.optBoolean("isAlive", true));
+        setPresent(s, true);
+        setSpeed(s, json.optDouble("speed", DEFAULT_SPEED));
+        setSize(s, json.optDouble("size", DEFAULT_SIZE));
+        setName(s, json.optString("name", DEFAULT_NAME));
+        setScore(s, json.optInt("score", 0));
+        setRange(s, json.optInt("explosionRange", DEFAULT_RANGE));
+        setBombCount(s, json.optInt("bombCount", DEFAULT_BOMBS));
+        setSpeedCount(s, json.optInt("speedCount", 0));
+        return s;
+    }
+
+    // --- Reads (lock-free on snapshot views) ---
+    public int size() {
+        return count;
+    }
+
+    public String uid(int s) {
+        return uid[s];
+    }
+
+    public int x(int s) {
+        return x[s];
+    }
+
+    public int y(int s) {
+        return y[s];
+    }
+
+    public String orient(int s) {
+        return orient[s];
+    }
+
+    // Present and alive
+    public boolean isAlive(int s) {
+        return s >= 0 && s < count && present[s] && alive[s];
+    }
+
+    public boolean isPresent(int s) {
+        return s >= 0 && s < count && present[s];
+    }
+
+    public double speed(int s) {
+        return speed[s];
+    }
+
+    public int range(int s) {
+        return range[s];
+    }
+
+    public int bombCount(int s) {
+        return bombCount[s];
+    }
+
+    public int speedCount(int s) {
+        return speedCount[s];
+    }
+
+    // Blast range of a bomb owner by uid, default when unknown
+    public int rangeOf(String id) {
+        int s = slotOf(id);
+        return s != NO_SLOT ? range[s] : DEFAULT_RANGE;
+    }
+
+    // Materialize one slot as a model object, for code that still works with Bomber
+    public Bomber toBomber(int s) {
+        Bomber b = new Bomber(uid[s], x[s], y[s]);
+        b.orient = orient[s];
+        b.isAlive = alive[s];
+        b.speed = speed[s];
+        b.size = size[s];
+        b.name = name[s];
+        b.score = score[s];
+        b.explosionRange = range[s];
+        b.bombCount = bombCount[s];
+        b.speedCount = speedCount[s];
+        return b;
+    }
+}
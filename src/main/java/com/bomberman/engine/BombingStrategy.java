@@ -1,319 +1,398 @@
 package com.bomberman.engine;
 
+import com.bomberman.metrics.Metrics;
 import com.bomberman.model.*;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class BombingStrategy {
-    private static final int[] ROW_DIRS = {-1, 1, 0, 0}; // UP, DOWN, LEFT, RIGHT
-    private static final int[] COL_DIRS = {0, 0, -1, 1};
+    // BFS goal that never matches: used to build a full distance/parent field
+    private static final SearchKernel.CellPredicate NO_GOAL = (cell, dist) -> false;
+    private static final int DEFAULT_SEARCH_RADIUS = 5;
+    // Below this many candidates the fork/join hand-off costs more than it saves
+    private static final int PARALLEL_MIN_CANDIDATES = 48;
+    private static final int LEAF_CANDIDATES = 16;
+    private static final long DEFAULT_FUSE_MS = 5000;  // Bomb lifeTime when no bomb is on the board to read it from
+    static final int SAFETY_MARGIN_MS = 300;           // Retreats must end this long before the blast (MoveExecutor too)
+    private static final int TURN_MS = (int) Math.ceil(DecisionScheduler.SERVER_FRAME_MS); // One frame per move command
+    private static final int TARGET_CACHE = 64;
+    private static final int RETREAT_CACHE = 256;
     
-    private GameState gameState;
-    private final DangerZoneCalculator dangerZoneCalculator = new DangerZoneCalculator();
+    private final SearchKernel reachKernel = new SearchKernel();  // Distance field from the bot
+    private final RetreatScratch retreat = new RetreatScratch();  // Sequential mode and findRetreatPath
+    private int searchRadius = DEFAULT_SEARCH_RADIUS;
+    private boolean predictEnemies = true; // Count enemies where they are heading, not only where they stand
+    private ForkJoinPool searchPool; // Null: candidates are always evaluated on the calling thread
+    private boolean memoize = true;  // False: every call runs the search (benchmarks)
+    private int[] candidates = new int[0];
     
-    public BombingStrategy(GameState gameState) {
-        this.gameState = gameState;
+    // Results keyed by Zobrist hashes of exactly the inputs they read, so an unchanged board
+    // (or a board seen a few ticks ago) answers without any search. Cached paths are immutable.
+    private final MemoCache<BombTarget> targetCache = new MemoCache<>(TARGET_CACHE);
+    private final MemoCache<List<String>> retreatCache = new MemoCache<>(RETREAT_CACHE);
+    
+    // Retreat search buffers; parallel workers each keep their own, so kernels are never shared
+    private static final class RetreatScratch {
+        final SearchKernel kernel = new SearchKernel();
+        // Pending bombs and the absolute time our bomb goes down, set before each search
+        DetonationTimeline timeline;
+        OccupancyIndex occupancy;
+        long dropAt;
+        int halfStepMs;
+        // Same rule as the escape search: out of a cell (half a tile on) before a pending blast reaches it
+        final SearchKernel.CellPredicate clearOfPending = (cell, t) -> {
+            if (occupancy.hasBomb(cell)) return false;
+            long at = timeline.explosionTime(cell);
+            return at == DetonationTimeline.NEVER || dropAt + t + halfStepMs + SAFETY_MARGIN_MS < at;
+        };
+        // Retreat goal: at least one step away, outside the hypothetical blast and every pending one
+        final SearchKernel.CellPredicate outsideBlast = (cell, dist) -> dist > 0 && !kernel.inBlast(cell)
+                && timeline.explosionTime(cell) == DetonationTimeline.NEVER;
+
+        // Search budget for a bomb dropped on cell at dropAt: the fuse, or less when a pending blast
+        // sets it off early; negative when there is no time at all
+        int prepare(GameSnapshot state, GameMap map, int cell, long dropAt, double msPerPx, int budgetMs) {
+            this.timeline = state.getDetonationTimeline();
+            this.occupancy = state.getOccupancy();
+            this.dropAt = dropAt;
+            this.halfStepMs = (int) Math.ceil(map.getTileSize() * msPerPx / 2);
+            return chainedBudgetMs(timeline, cell, dropAt, budgetMs);
+        }
+    }
+
+    private static int chainedBudgetMs(DetonationTimeline timeline, int cell, long dropAt, int budgetMs) {
+        long at = timeline.explosionTime(cell);
+        if (at == DetonationTimeline.NEVER) return budgetMs;
+        return (int) Math.max(-1, Math.min(budgetMs, at - dropAt - SAFETY_MARGIN_MS));
+    }
+    
+    private static final ThreadLocal<RetreatScratch> WORKER_SCRATCH = ThreadLocal.withInitial(RetreatScratch::new);
+    
+    // Cells searched in each direction around the bot
+    public void setSearchRadius(int searchRadius) {
+        this.searchRadius = searchRadius;
+    }
+    
+    public void setPredictEnemies(boolean predictEnemies) {
+        this.predictEnemies = predictEnemies;
     }
     
-    // Find the best position to place a bomb with safe retreat - O(map_size * range)
-    public BombTarget findBestBombingPosition() {
-        Bomber myBot = gameState.getMyBomber();
+    // Off to measure the searches themselves; the decision path always keeps it on
+    public void setMemoize(boolean memoize) {
+        this.memoize = memoize;
+    }
+    
+    // Evaluate large candidate sets on this pool (may be shared by many strategies); null for sequential
+    public void setSearchPool(ForkJoinPool searchPool) {
+        this.searchPool = searchPool;
+    }
+    
+    // Find the best position to place a bomb with safe retreat - O(map_size + candidates * range).
+    // now places pending bombs' detonation times relative to our walk there and back out.
+    public BombTarget findBestBombingPosition(GameSnapshot state, long now) {
+        long start = System.nanoTime();
+        try {
+            return searchBestBombingPosition(state, now);
+        } finally {
+            Metrics.TARGET_SEARCH.recordSince(start);
+        }
+    }
+
+    private BombTarget searchBestBombingPosition(GameSnapshot state, long now) {
+        Bomber myBot = state.getMyBomber();
         if (myBot == null || !myBot.isAlive()) return null;
         
-        String[][] map = gameState.getGameMap().getMap();
-        if (map == null) return null;
+        GameMap map = state.getGameMap();
+        if (!map.isLoaded()) return null;
         
-        int[] myCell = gameState.coordToCell(myBot.getX(), myBot.getY());
-        int myRow = myCell[0];
-        int myCol = myCell[1];
+        int myCell = map.cellAt(myBot.getX(), myBot.getY());
+        if (myCell < 0) return null;
         
-        BombTarget bestTarget = null;
-        int bestScore = 0;
+        // Inputs: tiles, bomber cells, enemy heat when predicting, pending bombs and their times
+        // relative to now, our cell, range, pace, fuse and the settings
+        int range = myBot.getExplosionRange();
+        double msPerPx = msPerPixel(myBot);
+        int budgetMs = retreatBudgetMs(state);
+        long query = Zobrist.key(Zobrist.TARGET, myCell, (range << 16) | searchRadius | (predictEnemies ? 1 << 30 : 0));
+        query = Zobrist.fold(Zobrist.fold(query, Double.doubleToLongBits(msPerPx)), budgetMs);
+        long key = map.getTileHash() ^ state.getOccupancy().getBomberHash()
+                ^ (predictEnemies ? state.getEnemyTracker().getHeatHash() : 0) ^ bombTiming(state, now) ^ query;
+        if (!memoize) return searchFrom(state, map, myCell, range, msPerPx, budgetMs, now);
+        // The cached target stays private; callers get a copy (its paths are immutable and shared)
+        BombTarget cached = targetCache.computeIfAbsent(key,
+                () -> searchFrom(state, map, myCell, range, msPerPx, budgetMs, now));
+        return cached != null ? new BombTarget(cached) : null;
+    }
+
+    private BombTarget searchFrom(GameSnapshot state, GameMap map, int myCell, int range, double msPerPx, int budgetMs,
+                                  long now) {
+        int myRow = map.rowOf(myCell);
+        int myCol = map.colOf(myCell);
         
-        // Search nearby cells for bombing positions (within reasonable distance)
-        int searchRadius = 5; // Search 5 cells in each direction
+        // One BFS from the bot gives distance and parent for every reachable cell
+        reachKernel.bfs(map, myCell, Integer.MAX_VALUE, NO_GOAL);
         
-        for (int r = Math.max(0, myRow - searchRadius); r < Math.min(map.length, myRow + searchRadius + 1); r++) {
-            for (int c = Math.max(0, myCol - searchRadius); c < Math.min(map[0].length, myCol + searchRadius + 1); c++) {
-                // Skip non-walkable cells
-                if (map[r][c] != null) continue;
-                
-                // Evaluate this position
-                BombTarget target = evaluateBombPosition(r, c, myBot.getExplosionRange());
-                
-                if (target != null && target.isHasRetreat() && target.getScore() > bestScore) {
-                    // Calculate path to this position
-                    List<String> pathToTarget = findPath(myRow, myCol, r, c);
-                    if (pathToTarget != null && !pathToTarget.isEmpty()) {
-                        target.setPathToTarget(pathToTarget);
-                        bestTarget = target;
-                        bestScore = target.getScore();
-                    }
-                }
+        // Reachable walkable cells in the search square, in row-major order
+        int side = 2 * searchRadius + 1;
+        if (candidates.length < side * side) candidates = new int[side * side];
+        int count = 0;
+        for (int r = Math.max(0, myRow - searchRadius); r < Math.min(map.getMapHeight(), myRow + searchRadius + 1); r++) {
+            for (int c = Math.max(0, myCol - searchRadius); c < Math.min(map.getMapWidth(), myCol + searchRadius + 1); c++) {
+                int cell = map.cellId(r, c);
+                if (map.isWalkable(cell) && reachKernel.reached(cell)) candidates[count++] = cell;
             }
         }
         
+        Evaluation eval = new Evaluation(state, reachKernel, predictEnemies ? state.getEnemyTracker() : null,
+                candidates, range, msPerPx, budgetMs, now);
+        BombTarget bestTarget = searchPool != null && count >= PARALLEL_MIN_CANDIDATES
+                ? searchPool.invoke(new EvaluateTask(eval, 0, count))
+                : eval.best(0, count, retreat);
+        
+        // Reconstruct the path only for the winner (empty when already standing on it)
+        if (bestTarget != null) {
+            bestTarget.setPathToTarget(reachKernel.pathTo(map.cellId(bestTarget.getRow(), bestTarget.getCol())));
+        }
         return bestTarget;
     }
     
-    // Find path using A* algorithm - O(map_size * log(map_size))
-    private List<String> findPath(int startRow, int startCol, int goalRow, int goalCol) {
-        String[][] map = gameState.getGameMap().getMap();
-        if (map == null) return null;
+    // Read-only inputs of one candidate evaluation, safe to share between workers
+    private static final class Evaluation {
+        final GameSnapshot state;
+        final GameMap map;
+        final BlastRayTable rays;
+        final OccupancyIndex occupancy;
+        final SearchKernel reach;   // Finished BFS from the bot, read only
+        final EnemyTracker enemies; // Null: current positions only
+        final int[] cells;
+        final int range;
+        final double msPerPx;
+        final int budgetMs;
+        final long now;
+        final int stepMs;
         
-        // If already at goal
-        if (startRow == goalRow && startCol == goalCol) {
-            return new ArrayList<>();
+        Evaluation(GameSnapshot state, SearchKernel reach, EnemyTracker enemies, int[] cells, int range,
+                   double msPerPx, int budgetMs, long now) {
+            this.state = state;
+            this.map = state.getGameMap();
+            this.rays = map.getRays();
+            this.occupancy = state.getOccupancy();
+            this.reach = reach;
+            this.enemies = enemies;
+            this.cells = cells;
+            this.range = range;
+            this.msPerPx = msPerPx;
+            this.budgetMs = budgetMs;
+            this.now = now;
+            this.stepMs = (int) Math.ceil(map.getTileSize() * msPerPx) + TURN_MS;
         }
         
-        PriorityQueue<PathNode> openSet = new PriorityQueue<>();
-        boolean[][] visited = new boolean[map.length][map[0].length];
-        
-        PathNode start = new PathNode(startRow, startCol, 0, heuristic(startRow, startCol, goalRow, goalCol), null, null);
-        openSet.offer(start);
-        
-        while (!openSet.isEmpty()) {
-            PathNode current = openSet.poll();
-            
-            if (current.getRow() == goalRow && current.getCol() == goalCol) {
-                // Reconstruct path
-                return reconstructPath(current);
-            }
-            
-            if (visited[current.getRow()][current.getCol()]) continue;
-            visited[current.getRow()][current.getCol()] = true;
-            
-            // Explore neighbors
-            String[] directions = {"UP", "DOWN", "LEFT", "RIGHT"};
-            for (int i = 0; i < 4; i++) {
-                int newRow = current.getRow() + ROW_DIRS[i];
-                int newCol = current.getCol() + COL_DIRS[i];
+        // Best target among cells[from, to): highest score, first in row-major order on ties,
+        // so splitting the range and merging with better() gives the sequential answer
+        BombTarget best(int from, int to, RetreatScratch scratch) {
+            BombTarget bestTarget = null;
+            int bestScore = 0;
+            for (int i = from; i < to; i++) {
+                int cell = cells[i];
                 
-                if (newRow < 0 || newRow >= map.length || newCol < 0 || newCol >= map[0].length) continue;
-                if (visited[newRow][newCol]) continue;
-                if (map[newRow][newCol] != null) continue; // Can't walk through walls/chests
+                // Count targets in 4 directions (UP, DOWN, LEFT, RIGHT)
+                int chestsHit = 0;
+                int enemiesHit = 0;
+                for (int dir = 0; dir < 4; dir++) {
+                    if (rays.hitsChest(cell, dir, range)) chestsHit++;
+                    enemiesHit += countEnemiesInDirection(occupancy, rays, cell, dir, range);
+                }
+                if (enemies != null) {
+                    // Expected enemies inside the blast over the prediction horizon, rounded
+                    enemiesHit = Math.max(enemiesHit, Math.round(predictedEnemies(enemies, rays, cell, range)));
+                }
+                
+                // Calculate score (enemies worth more than chests)
+                int score = chestsHit + (enemiesHit * 3);
+                if (score <= bestScore) continue;
                 
-                int newG = current.getG() + 1;
-                int newH = heuristic(newRow, newCol, goalRow, goalCol);
-                int newF = newG + newH;
+                // Retreat analysis runs once, only for candidates that would become the best:
+                // from the tile center where we would drop the bomb (after walking there), out of
+                // our blast before it fires and past pending blasts before they reach each cell
+                long dropAt = now + (long) reach.distance(cell) * stepMs;
+                int maxMs = scratch.prepare(state, map, cell, dropAt, msPerPx, budgetMs);
+                if (maxMs < 0) continue;
+                int safeCell = scratch.kernel.earliestArrivalAwayFromBlast(map, cell, range, map.centerX(cell),
+                        map.centerY(cell), msPerPx, TURN_MS, maxMs, scratch.clearOfPending, scratch.outsideBlast);
+                if (safeCell < 0) continue;
                 
-                PathNode neighbor = new PathNode(newRow, newCol, newG, newF, current, directions[i]);
-                openSet.offer(neighbor);
+                BombTarget target = new BombTarget();
+                target.setRow(map.rowOf(cell));
+                target.setCol(map.colOf(cell));
+                target.setChestsHit(chestsHit);
+                target.setEnemiesHit(enemiesHit);
+                target.setScore(score);
+                target.setHasRetreat(true);
+                target.setRetreatPath(scratch.kernel.pathTo(safeCell));
+                bestTarget = target;
+                bestScore = score;
             }
+            return bestTarget;
         }
-        
-        return null; // No path found
     }
     
-    // Manhattan distance heuristic
-    private int heuristic(int row1, int col1, int row2, int col2) {
-        return Math.abs(row1 - row2) + Math.abs(col1 - col2);
+    // Merge of two halves: left holds the earlier cells, so it wins ties
+    private static BombTarget better(BombTarget left, BombTarget right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        return right.getScore() > left.getScore() ? right : left;
     }
     
-    // Reconstruct path from goal to start
-    private List<String> reconstructPath(PathNode goal) {
-        List<String> path = new ArrayList<>();
-        PathNode current = goal;
+    // Splits the candidate range in halves; leaves evaluate with their worker's own kernel.
+    // Never serialized: the task lives only inside the pool for one search
+    @SuppressWarnings("serial")
+    private static final class EvaluateTask extends RecursiveTask<BombTarget> {
+        private final Evaluation eval;
+        private final int from;
+        private final int to;
         
-        while (current.getParent() != null) {
-            path.add(0, current.getDirection()); // Add to front
-            current = current.getParent();
+        EvaluateTask(Evaluation eval, int from, int to) {
+            this.eval = eval;
+            this.from = from;
+            this.to = to;
         }
         
-        return path;
-    }
-    
-    // Evaluate a bombing position - O(range)
-    private BombTarget evaluateBombPosition(int row, int col, int explosionRange) {
-        String[][] map = gameState.getGameMap().getMap();
-        if (map == null || row < 0 || row >= map.length || col < 0 || col >= map[0].length) {
-            return null;
+        @Override
+        protected BombTarget compute() {
+            if (to - from <= LEAF_CANDIDATES) return eval.best(from, to, WORKER_SCRATCH.get());
+            int mid = (from + to) >>> 1;
+            EvaluateTask right = new EvaluateTask(eval, mid, to);
+            right.fork();
+            BombTarget left = new EvaluateTask(eval, from, mid).compute();
+            return better(left, right.join());
         }
-        
-        // Can't place bomb on non-walkable cell
-        if (map[row][col] != null) return null;
-        
-        int chestsHit = 0;
-        int enemiesHit = 0;
-        
-        // Count targets in 4 directions
-        chestsHit += countTargetsInDirection(row, col, -1, 0, explosionRange, true);  // UP
-        chestsHit += countTargetsInDirection(row, col, 1, 0, explosionRange, true);   // DOWN
-        chestsHit += countTargetsInDirection(row, col, 0, -1, explosionRange, true);  // LEFT
-        chestsHit += countTargetsInDirection(row, col, 0, 1, explosionRange, true);   // RIGHT
-        
-        enemiesHit += countTargetsInDirection(row, col, -1, 0, explosionRange, false); // UP
-        enemiesHit += countTargetsInDirection(row, col, 1, 0, explosionRange, false);  // DOWN
-        enemiesHit += countTargetsInDirection(row, col, 0, -1, explosionRange, false); // LEFT
-        enemiesHit += countTargetsInDirection(row, col, 0, 1, explosionRange, false);  // RIGHT
-        
-        // Calculate score (enemies worth more than chests)
-        int score = chestsHit + (enemiesHit * 3);
-        
-        if (score == 0) return null; // No targets, don't bomb
-        
-        // Check for retreat path
-        boolean hasRetreat = hasRetreatPath(row, col, explosionRange);
-        
-        BombTarget target = new BombTarget();
-        target.setRow(row);
-        target.setCol(col);
-        target.setChestsHit(chestsHit);
-        target.setEnemiesHit(enemiesHit);
-        target.setScore(score);
-        target.setHasRetreat(hasRetreat);
-        
-        return target;
     }
     
-    // Count targets in one direction - O(range)
-    private int countTargetsInDirection(int startRow, int startCol, int deltaRow, int deltaCol, 
-                                        int range, boolean countChests) {
-        String[][] map = gameState.getGameMap().getMap();
+    // Count enemies along one blast ray - O(reach), ray extent comes from the precomputed table
+    private static int countEnemiesInDirection(OccupancyIndex occupancy, BlastRayTable rays, int startCell, int dir, int range) {
         int count = 0;
+        int reach = rays.reach(startCell, dir, range);
         
-        for (int i = 1; i <= range; i++) {
-            int row = startRow + (deltaRow * i);
-            int col = startCol + (deltaCol * i);
-            
-            if (row < 0 || row >= map.length || col < 0 || col >= map[0].length) break;
-            
-            String cell = map[row][col];
-            
-            // Wall blocks explosion completely
-            if ("W".equals(cell)) break;
-            
-            // Chest blocks explosion - count it if counting chests, then stop
-            if ("C".equals(cell)) {
-                if (countChests) {
-                    count++;
-                }
-                break;
-            }
-            
-            // Count enemies only if not counting chests
-            if (!countChests) {
-                int[] coord = gameState.cellToCoord(row, col);
-                if (isEnemyAtPosition(coord[0], coord[1])) {
-                    count++;
-                }
+        for (int i = 1; i <= reach; i++) {
+            if (occupancy.hasEnemy(rays.cellAlong(startCell, dir, i))) {
+                count++;
             }
         }
         
         return count;
     }
     
-    // Check if enemy is at position - O(bombers)
-    private boolean isEnemyAtPosition(int x, int y) {
-        Bomber myBot = gameState.getMyBomber();
-        if (myBot == null) return false;
-        
-        for (Bomber bomber : gameState.getEnemies()) {
-            if (!bomber.isAlive()) continue;
-            
-            // Check if bomber is in this cell (using cell-based comparison)
-            int[] bomberCell = gameState.coordToCell(bomber.getX(), bomber.getY());
-            int[] targetCell = gameState.coordToCell(x, y);
-            
-            if (bomberCell[0] == targetCell[0] && bomberCell[1] == targetCell[1]) {
-                return true;
+    // Summed enemy heat over the blast cross - O(range)
+    private static float predictedEnemies(EnemyTracker enemies, BlastRayTable rays, int startCell, int range) {
+        float total = enemies.heat(startCell);
+        for (int dir = 0; dir < 4; dir++) {
+            int reach = rays.reach(startCell, dir, range);
+            for (int i = 1; i <= reach; i++) {
+                total += enemies.heat(rays.cellAlong(startCell, dir, i));
             }
         }
-        return false;
+        return total;
     }
     
-    // Find retreat path using BFS - O(map_size) worst case
-    private boolean hasRetreatPath(int bombRow, int bombCol, int explosionRange) {
-        String[][] map = gameState.getGameMap().getMap();
-        int rows = map.length;
-        int cols = map[0].length;
-        
-        // Create danger zone for this hypothetical bomb using the calculator
-        boolean[][] dangerZone = dangerZoneCalculator.buildBombDangerZone(map, bombRow, bombCol, explosionRange);
-        
-        // BFS to find safe cell within 5 seconds (assuming speed=1, ~5 cells away)
-        Queue<int[]> queue = new LinkedList<>();
-        boolean[][] visited = new boolean[rows][cols];
-        
-        queue.offer(new int[]{bombRow, bombCol, 0}); // row, col, distance
-        visited[bombRow][bombCol] = true;
-        
-        Bomber myBot = gameState.getMyBomber();
-        int maxDistance = 5 + (myBot != null ? myBot.getSpeedCount() : 0); // Can move further with speed boost
-        
-        while (!queue.isEmpty()) {
-            int[] current = queue.poll();
-            int row = current[0];
-            int col = current[1];
-            int dist = current[2];
-            
-            // Found safe cell within reachable distance
-            if (!dangerZone[row][col] && dist > 0) {
-                return true;
-            }
-            
-            if (dist >= maxDistance) continue;
-            
-            // Explore 4 directions
-            for (int i = 0; i < 4; i++) {
-                int newRow = row + ROW_DIRS[i];
-                int newCol = col + COL_DIRS[i];
-                
-                if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) continue;
-                if (visited[newRow][newCol]) continue;
-                if (map[newRow][newCol] != null) continue; // Can't walk through walls/chests
-                
-                visited[newRow][newCol] = true;
-                queue.offer(new int[]{newRow, newCol, dist + 1});
-            }
+    // Find safe direction to retreat after placing bomb at now - returns path (if any)
+    public List<String> findRetreatPath(GameSnapshot state, int bombCell, int explosionRange, long now) {
+        long start = System.nanoTime();
+        try {
+            return searchRetreatPath(state, bombCell, explosionRange, now);
+        } finally {
+            Metrics.RETREAT_SEARCH.recordSince(start);
         }
-        
-        return false; // No safe retreat found
     }
 
-    // Find safe direction to retreat after placing bomb - returns path (if any)
-    public List<String> findRetreatPath(int bombRow, int bombCol, int explosionRange) {
-        String[][] map = gameState.getGameMap().getMap();
-        if (map == null) return null;
-        int rows = map.length;
-        int cols = map[0].length;
+    private List<String> searchRetreatPath(GameSnapshot state, int bombCell, int explosionRange, long now) {
+        GameMap map = state.getGameMap();
+        if (!map.isLoaded() || bombCell < 0) return null;
 
-        boolean[][] dangerZone = dangerZoneCalculator.buildBombDangerZone(map, bombRow, bombCol, explosionRange);
+        // From our exact pixel position when we stand on the bomb, else from the bomb's tile center
+        Bomber myBot = state.getMyBomber();
+        boolean onBomb = myBot != null && map.cellAt(myBot.getX(), myBot.getY()) == bombCell;
+        int x = onBomb ? myBot.getX() : map.centerX(bombCell);
+        int y = onBomb ? myBot.getY() : map.centerY(bombCell);
+        double msPerPx = msPerPixel(myBot);
+        int budgetMs = retreatBudgetMs(state);
 
-        java.util.Queue<com.bomberman.model.PathNode> queue = new java.util.LinkedList<>();
-        boolean[][] visited = new boolean[rows][cols];
+        // The retreat search reads the tiles and the pending bombs' timing, so the key is those plus the query
+        long query = Zobrist.key(Zobrist.RETREAT, bombCell, explosionRange);
+        query = Zobrist.fold(Zobrist.fold(Zobrist.fold(query, ((long) x << 32) | y), Double.doubleToLongBits(msPerPx)), budgetMs);
+        if (!memoize) return retreatFrom(state, map, bombCell, explosionRange, x, y, msPerPx, budgetMs, now);
+        return retreatCache.computeIfAbsent(map.getTileHash() ^ bombTiming(state, now) ^ query,
+                () -> retreatFrom(state, map, bombCell, explosionRange, x, y, msPerPx, budgetMs, now));
+    }
 
-        com.bomberman.model.PathNode start = new com.bomberman.model.PathNode(bombRow, bombCol, 0, 0, null, null);
-        queue.offer(start);
-        visited[bombRow][bombCol] = true;
+    private List<String> retreatFrom(GameSnapshot state, GameMap map, int bombCell, int explosionRange, int x, int y,
+                                     double msPerPx, int budgetMs, long now) {
+        int maxMs = retreat.prepare(state, map, bombCell, now, msPerPx, budgetMs);
+        if (maxMs < 0) return null;
+        int safeCell = retreat.kernel.earliestArrivalAwayFromBlast(map, bombCell, explosionRange, x, y,
+                msPerPx, TURN_MS, maxMs, retreat.clearOfPending, retreat.outsideBlast);
+        return safeCell >= 0 ? retreat.kernel.pathTo(safeCell) : null;
+    }
 
-        com.bomberman.model.Bomber myBot = gameState.getMyBomber();
-        int maxDistance = 5 + (myBot != null ? myBot.getSpeedCount() : 0);
+    // Pending bombs as the retreat searches see them: cell, range and time left until they fire.
+    // Zero without bombs, so an empty board keeps its memo entries as time passes.
+    private static long bombTiming(GameSnapshot state, long now) {
+        long hash = 0;
+        for (Bomb bomb : state.getBombs().values()) {
+            long key = Zobrist.key(Zobrist.BOMB, state.cellAt(bomb.x, bomb.y), bomb.range);
+            hash ^= Zobrist.fold(key, bomb.createdAt + bomb.lifeTime - now);
+        }
+        return hash;
+    }
 
-        String[] directions = {"UP", "DOWN", "LEFT", "RIGHT"};
-        for (;;) {
-            if (queue.isEmpty()) break;
-            com.bomberman.model.PathNode current = queue.poll();
-            if (!dangerZone[current.getRow()][current.getCol()] && current.getG() > 0) {
-                return reconstructPath(current);
-            }
-            if (current.getG() >= maxDistance) continue;
-            for (int i = 0; i < 4; i++) {
-                int newRow = current.getRow() + ROW_DIRS[i];
-                int newCol = current.getCol() + COL_DIRS[i];
-                if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) continue;
-                if (visited[newRow][newCol]) continue;
-                if (map[newRow][newCol] != null) continue;
-                visited[newRow][newCol] = true;
-                com.bomberman.model.PathNode neighbor = new com.bomberman.model.PathNode(newRow, newCol, current.getG() + 1, 0, current, directions[i]);
-                queue.offer(neighbor);
-            }
+    // Fastest way out of every pending blast from our exact position, never standing on a cell
+    // when (chain-adjusted) it explodes; null when no such path exists - O(map log map)
+    public List<String> findEscapePath(GameSnapshot state, long now) {
+        long start = System.nanoTime();
+        try {
+            return searchEscapePath(state, now);
+        } finally {
+            Metrics.RETREAT_SEARCH.recordSince(start);
         }
-        return null;
     }
-    
-    
-}
 
+    private List<String> searchEscapePath(GameSnapshot state, long now) {
+        Bomber myBot = state.getMyBomber();
+        GameMap map = state.getGameMap();
+        if (myBot == null || !map.isLoaded()) return null;
 
+        DetonationTimeline timeline = state.getDetonationTimeline();
+        OccupancyIndex occupancy = state.getOccupancy();
+        double msPerPx = msPerPixel(myBot);
+        int halfStepMs = (int) Math.ceil(map.getTileSize() * msPerPx / 2);
+        // A cell may be crossed if we are out of it (half a tile on) before it explodes
+        SearchKernel.CellPredicate enter = (cell, t) -> {
+            if (occupancy.hasBomb(cell)) return false;
+            long at = timeline.explosionTime(cell);
+            return at == DetonationTimeline.NEVER || now + t + halfStepMs + SAFETY_MARGIN_MS < at;
+        };
+        SearchKernel.CellPredicate safe = (cell, t) -> timeline.explosionTime(cell) == DetonationTimeline.NEVER;
 
+        int safeCell = retreat.kernel.earliestArrival(map, myBot.getX(), myBot.getY(), msPerPx, TURN_MS,
+                Integer.MAX_VALUE / 2, enter, safe);
+        List<String> path = safeCell >= 0 ? retreat.kernel.pathTo(safeCell) : null;
+        return path != null && !path.isEmpty() ? path : null;
+    }
+
+    // Server moves a bomber `speed` pixels per frame
+    private static double msPerPixel(Bomber myBot) {
+        double speed = myBot != null ? myBot.getSpeed() : 1.0;
+        return DecisionScheduler.SERVER_FRAME_MS / Math.max(0.1, speed);
+    }
+
+    // Time a fresh bomb gives us to get clear: the server's fuse less a safety margin
+    private static int retreatBudgetMs(GameSnapshot state) {
+        long fuse = DEFAULT_FUSE_MS;
+        for (Bomb bomb : state.getBombs().values()) {
+            fuse = bomb.lifeTime; // One fuse length for every bomb
+            break;
+        }
+        return (int) Math.max(0, fuse - SAFETY_MARGIN_MS);
+    }
+}
@@ -0,0 +1,201 @@
+package com.bomberman.engine;
+
+import com.bomberman.metrics.Metrics;
+import com.bomberman.model.*;
+import com.bomberman.planner.MctsPlanner;
+import com.bomberman.planner.PlanState;
+
+import java.util.*;
+import java.util.function.LongSupplier;
+
+// Bomb/retreat state machine, independent of the transport: commands go to a CommandSink,
+// so the same logic drives the live socket bot and the offline simulator.
+public class BotController {
+    private final CommandSink sink;
+    private final BombingStrategy strategy = new BombingStrategy();
+    private MctsPlanner planner; // Null: greedy bomb/retreat state machine
+    private LongSupplier clock = System::currentTimeMillis; // Same time base as Bomb.createdAt
+    private boolean verbose = true;
+
+    public BotController(CommandSink sink) {
+        this.sink = sink;
+    }
+
+    // Simulated games run thousands of ticks; keep their console quiet
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    // Strategy switch: search-based planning when set, the greedy state machine when null
+    public void setPlanner(MctsPlanner planner) {
+        this.planner = planner;
+    }
+
+    // Target search settings (radius, parallel evaluation pool)
+    public BombingStrategy getStrategy() {
+        return strategy;
+    }
+
+    // Simulated games run on their own clock
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    private void log(String message) {
+        if (verbose) System.out.println(message);
+    }
+
+    private enum BotState {
+        IDLE,
+        EXECUTING // Walking to a bomb position, bombing and retreating (see MoveExecutor)
+    }
+
+    private BotState currentState = BotState.IDLE;
+    private final MoveExecutor executor = new MoveExecutor(
+            (state, cell, now) -> strategy.findRetreatPath(state, cell, state.getMyBomber().getExplosionRange(), now));
+
+    // One decision tick against a pinned snapshot; emits at most a bomb and one move
+    public void decide(GameSnapshot state) {
+        long start = System.nanoTime();
+        try {
+            makeDecision(state);
+        } finally {
+            Metrics.DECISION.recordSince(start);
+        }
+    }
+
+    // Fallback timer delay: when a running plan next needs us, else the next tile boundary
+    public long nextDecisionDelayMs(GameSnapshot state) {
+        Bomber myBot = state.getMyBomber();
+        if (myBot == null || !myBot.isAlive()) return DecisionScheduler.MAX_DELAY_MS;
+        if (executor.isRunning()) return executor.nextWakeMs(state);
+        return DecisionScheduler.msToNextTile(myBot, state.getGameMap().getTileSize());
+    }
+
+    private void makeDecision(GameSnapshot state) {
+        Bomber myBot = state.getMyBomber();
+        if (myBot == null || !myBot.isAlive()) return;
+
+        // Planner mode: one search per tick; the greedy logic below only runs if it finds nothing
+        if (planner != null && followPlan(state)) return;
+
+        long now = clock.getAsLong();
+
+        // PRIORITY: If we're in danger, retreat immediately (override any state)
+        if (state.isInDangerZone(myBot.getX(), myBot.getY())) {
+            // Our own retreat keeps walking (pipelined) while every step ahead still clears the blasts
+            if (executor.isRetreating() && executor.tick(state, sink, now) == MoveExecutor.Status.RUNNING) return;
+            if (currentState == BotState.EXECUTING) {
+                log("Plan dropped for escape: " + (executor.getAbortReason() != null ? executor.getAbortReason() : "in danger"));
+            }
+            executor.cancel();
+            currentState = BotState.IDLE; // Reset state
+
+            // Timed escape from our exact position; the one-step heuristic only when none exists
+            List<String> escape = strategy.findEscapePath(state, now);
+            String safeDirection = escape != null ? escape.get(0) : findSafeDirection(state);
+            if (safeDirection != null) {
+                sink.move(safeDirection);
+            }
+            return;
+        }
+
+        if (currentState == BotState.IDLE) {
+            // Look for bombing opportunities
+            if (myBot.getBombCount() > 0) {
+                BombTarget target = strategy.findBestBombingPosition(state, now);
+                if (target != null && target.isHasRetreat() && target.getScore() > 0
+                        && executor.load(bombPlan(target), state, now)) {
+                    currentState = BotState.EXECUTING;
+                    log("Found bomb target: " + target);
+                }
+            }
+
+            // If no bombing opportunity, explore
+            if (currentState == BotState.IDLE) {
+                String exploreDirection = findSafeDirection(state);
+                if (exploreDirection != null) {
+                    sink.move(exploreDirection);
+                }
+                return;
+            }
+        }
+
+        // Executing a plan: the executor sends the moves and the bomb
+        MoveExecutor.Status status = executor.tick(state, sink, now);
+        if (status == MoveExecutor.Status.RUNNING) return;
+        currentState = BotState.IDLE;
+        if (status == MoveExecutor.Status.DONE) {
+            log("Finished retreat, back to IDLE");
+            return;
+        }
+
+        // Do not walk on into a stale plan; step somewhere safe and search again next tick
+        log("Plan aborted: " + executor.getAbortReason());
+        String safeDir = findSafeDirection(state);
+        if (safeDir != null) {
+            sink.move(safeDir);
+        }
+    }
+
+    // Approach moves with the bomb fused into the last one, then the retreat from the bomb cell
+    private static List<Action> bombPlan(BombTarget target) {
+        List<Action> plan = new ArrayList<>();
+        List<String> approach = target.getPathToTarget();
+        if (approach == null || approach.isEmpty()) {
+            plan.add(new Action(ActionType.PLACE_BOMB, null)); // Already at bombing position
+        } else {
+            for (int i = 0; i < approach.size(); i++) {
+                ActionType type = i == approach.size() - 1 ? ActionType.MOVE_AND_BOMB : ActionType.MOVE;
+                plan.add(new Action(type, approach.get(i)));
+            }
+        }
+        if (target.getRetreatPath() != null) {
+            for (String direction : target.getRetreatPath()) plan.add(new Action(ActionType.MOVE, direction));
+        }
+        return plan;
+    }
+
+    private boolean followPlan(GameSnapshot state) {
+        MctsPlanner.Plan plan = planner.plan(state, clock.getAsLong());
+        if (plan == null) return false;
+        if (plan.action == PlanState.ACTION_BOMB) {
+            sink.placeBomb();
+            log("Planner placed bomb: " + plan);
+        } else if (plan.action != PlanState.ACTION_WAIT) {
+            sink.move(GameMap.DIR_NAMES[plan.action]);
+        }
+        return true;
+    }
+
+    private String findSafeDirection(GameSnapshot state) {
+        Bomber myBot = state.getMyBomber();
+        GameMap map = state.getGameMap();
+        int myCell = map.cellAt(myBot.getX(), myBot.getY());
+        if (myCell < 0) return null;
+
+        for (int i = 0; i < 4; i++) {
+            int next = map.neighbor(myCell, i);
+
+            if (next >= 0 && map.isWalkable(next) && !state.isDangerCell(next)) {
+                return GameMap.DIR_NAMES[i];
+            }
+        }
+
+        // No safe neighbor: step toward the cell that explodes last (chain reactions included)
+        DetonationTimeline timeline = state.getDetonationTimeline();
+        long latest = timeline.explosionTime(myCell);
+        String bestDirection = null;
+        for (int i = 0; i < 4; i++) {
+            int next = map.neighbor(myCell, i);
+            if (next < 0 || !map.isWalkable(next)) continue;
+            long t = timeline.explosionTime(next);
+            if (t > latest) {
+                latest = t;
+                bestDirection = GameMap.DIR_NAMES[i];
+            }
+        }
+
+        return bestDirection;
+    }
+}
@@ -0,0 +1,8 @@
+package com.bomberman.engine;
+
+// Destination of the bot's commands: the socket in a live game, the simulator offline
+public interface CommandSink {
+    void move(String direction);
+
+    void placeBomb();
+}
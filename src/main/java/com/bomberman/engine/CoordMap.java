@@ -0,0 +1,185 @@
+package com.bomberman.engine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Open-addressing hash map keyed by an (x, y) coordinate packed into one long.
+// Linear probing with backward-shift deletion: no key objects, no boxing, no tombstones.
+// Null values are not allowed (a null value marks an empty slot).
+// Snapshots share the arrays; the live map copies them on its next write only.
+public final class CoordMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private boolean shared; // Set when a snapshot references the arrays
+
+    public CoordMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public CoordMap(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expected * 2) capacity <<= 1; // Load factor <= 0.5
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    // Read-only view sharing the live arrays
+    private CoordMap(CoordMap<V> source) {
+        keys = source.keys;
+        values = source.values;
+        size = source.size;
+        mask = source.mask;
+        shared = true;
+    }
+
+    public CoordMap<V> snapshot() {
+        shared = true;
+        return new CoordMap<>(this);
+    }
+
+    public static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+
+    // --- Queries - O(1) expected ---
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(int x, int y) {
+        int slot = indexOf(x, y);
+        return slot >= 0 ? valueAt(slot) : null;
+    }
+
+    public boolean containsKey(int x, int y) {
+        return indexOf(x, y) >= 0;
+    }
+
+    // Slot holding this coordinate, -1 when absent
+    public int indexOf(int x, int y) {
+        long key = key(x, y);
+        for (int slot = home(key); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        return -1;
+    }
+
+    // --- Slot iteration: for (int i = 0; i < map.capacity(); i++) { V v = map.valueAt(i); ... } ---
+    public int capacity() {
+        return values.length;
+    }
+
+    // Value in a slot, null when the slot is empty
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    public void forEach(Consumer<? super V> action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            V value = valueAt(slot);
+            if (value != null) action.accept(value);
+        }
+    }
+
+    // --- Writes ---
+    public V put(int x, int y, V value) {
+        return put(x, y, value, true);
+    }
+
+    public V putIfAbsent(int x, int y, V value) {
+        return put(x, y, value, false);
+    }
+
+    private V put(int x, int y, V value, boolean replace) {
+        if (value == null) throw new IllegalArgumentException("null value");
+        writable();
+        long key = key(x, y);
+        int slot = home(key);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = valueAt(slot);
+                if (replace) values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > values.length) resize(values.length * 2);
+        return null;
+    }
+
+    // Replace the value in an occupied slot (same key)
+    public void setValueAt(int slot, V value) {
+        if (value == null || values[slot] == null) throw new IllegalArgumentException("empty slot or null value");
+        writable();
+        values[slot] = value;
+    }
+
+    public V remove(int x, int y) {
+        int slot = indexOf(x, y);
+        if (slot < 0) return null;
+        writable();
+        V previous = valueAt(slot);
+        // Backward-shift: pull later entries of the probe run into the gap
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = home(keys[next]);
+            // Move if next's home is not in the cyclic range (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = null;
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        if (shared) {
+            keys = new long[keys.length];
+            values = new Object[values.length];
+            shared = false;
+        } else {
+            Arrays.fill(values, null);
+        }
+        size = 0;
+    }
+
+    private void writable() {
+        if (!shared) return;
+        keys = keys.clone();
+        values = values.clone();
+        shared = false;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int slot = home(oldKeys[i]);
+            while (values[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
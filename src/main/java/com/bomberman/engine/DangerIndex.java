@@ -0,0 +1,139 @@
+package com.bomberman.engine;
+
+import com.bomberman.model.GameMap;
+import com.bomberman.model.Zobrist;
+
+import java.util.*;
+
+// Persistent danger index: per-cell count of live bombs whose blast covers the cell.
+// Updated incrementally on new_bomb / bomb_explode / chest_destroyed; reads are O(1).
+public class DangerIndex {
+
+    // Blast footprint of one bomb: center plus the cells reached along each ray
+    private static final class Footprint {
+        final int center;
+        final int range;
+        final int[][] rays = new int[4][];
+
+        Footprint(int center, int range) {
+            this.center = center;
+            this.range = range;
+        }
+    }
+
+    private GameMap map;
+    private int[] coverage = new int[0];
+    private final Map<Integer, Footprint> footprints = new HashMap<>();
+    private int[] rayScratch = new int[0];
+    private boolean shared; // coverage is referenced by a snapshot: copy before the next write
+    private long bombHash;  // Zobrist hash of (cell, range) over live bombs
+
+    public DangerIndex() {
+    }
+
+    // Read-only view sharing the coverage array
+    private DangerIndex(int[] coverage, long bombHash) {
+        this.coverage = coverage;
+        this.bombHash = bombHash;
+    }
+
+    // Freeze current coverage into a read-only view; the live index copies on its next write only
+    public synchronized DangerIndex snapshot() {
+        shared = true;
+        return new DangerIndex(coverage, bombHash);
+    }
+
+    private void ensureWritable() {
+        if (shared) {
+            coverage = coverage.clone();
+            shared = false;
+        }
+    }
+
+    // Rebind to a (re)parsed map; previous bombs must be re-added by the caller
+    public synchronized void reset(GameMap map) {
+        this.map = map;
+        this.coverage = new int[map.getCellCount()];
+        this.shared = false;
+        this.rayScratch = new int[Math.max(map.getMapWidth(), map.getMapHeight())];
+        footprints.clear();
+        bombHash = 0;
+    }
+
+    // Add a bomb's blast - O(range)
+    public synchronized void addBomb(int bombId, int bombCell, int range) {
+        if (map == null || bombCell < 0 || bombCell >= coverage.length) return;
+        removeBomb(bombId); // Re-sent bombs replace their old footprint
+        ensureWritable();
+
+        Footprint fp = new Footprint(bombCell, range);
+        coverage[bombCell]++;
+        for (int dir = 0; dir < 4; dir++) {
+            fp.rays[dir] = walkRay(bombCell, dir, range);
+        }
+        footprints.put(bombId, fp);
+        bombHash ^= Zobrist.key(Zobrist.BOMB, bombCell, range);
+    }
+
+    // Remove a bomb's blast - O(range)
+    public synchronized void removeBomb(int bombId) {
+        Footprint fp = footprints.remove(bombId);
+        if (fp == null) return;
+        ensureWritable();
+        bombHash ^= Zobrist.key(Zobrist.BOMB, fp.center, fp.range);
+        coverage[fp.center]--;
+        for (int dir = 0; dir < 4; dir++) {
+            release(fp.rays[dir]);
+        }
+    }
+
+    // A tile changed (chest destroyed or appeared): re-walk only the rays that touch it - O(bombs * range)
+    public synchronized void onTileChanged(int cell) {
+        if (map == null) return;
+        for (Footprint fp : footprints.values()) {
+            for (int dir = 0; dir < 4; dir++) {
+                int[] ray = fp.rays[dir];
+                if (!contains(ray, cell)) continue;
+                ensureWritable();
+                release(ray);
+                fp.rays[dir] = walkRay(fp.center, dir, fp.range);
+            }
+        }
+    }
+
+    public boolean isDanger(int cell) {
+        int[] cov = coverage;
+        return cell >= 0 && cell < cov.length && cov[cell] > 0;
+    }
+
+    public long getBombHash() {
+        return bombHash;
+    }
+
+    public synchronized int getBombCount() {
+        return footprints.size();
+    }
+
+    private int[] walkRay(int startCell, int dir, int range) {
+        if (rayScratch.length < range) rayScratch = new int[range];
+        int n = map.getRays().walkRay(startCell, dir, range, rayScratch);
+        int[] ray = Arrays.copyOf(rayScratch, n);
+        for (int cell : ray) {
+            coverage[cell]++;
+        }
+        return ray;
+    }
+
+    private static boolean contains(int[] ray, int cell) {
+        for (int c : ray) {
+            if (c == cell) return true;
+        }
+        return false;
+    }
+
+    private void release(int[] ray) {
+        for (int cell : ray) {
+            coverage[cell]--;
+        }
+    }
+}
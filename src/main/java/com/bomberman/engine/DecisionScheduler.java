@@ -0,0 +1,195 @@
+package com.bomberman.engine;
+
+import com.bomberman.model.Bomber;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Event-driven decision loop: runs the decision task as soon as a state-changing event
+// signals it, coalescing bursts into one run, and otherwise on a deadline timer.
+// Runs on its own thread, or on a pool shared by many bots (see BotHost); either way at
+// most one decision per scheduler runs at a time.
+public class DecisionScheduler {
+    public static final long MIN_DELAY_MS = 20;
+    public static final long MAX_DELAY_MS = 100; // Old fixed tick, kept as the upper bound
+
+    // Server advances a bomber `speed` pixels per frame at roughly 60 frames per second
+    public static final double SERVER_FRAME_MS = 1000.0 / 60;
+
+    private final Runnable decision;
+    private final LongSupplier nextDelayMs;
+    private final ScheduledExecutorService pool; // Null: dedicated thread
+    private final Object lock = new Object();
+    private boolean pending;
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    // Pool mode: a run is queued or executing, and the fallback timer when idle
+    private boolean active;
+    private ScheduledFuture<?> timer;
+
+    private volatile long eventWakeups;
+    private volatile long timerWakeups;
+
+    public DecisionScheduler(Runnable decision, LongSupplier nextDelayMs) {
+        this(decision, nextDelayMs, null);
+    }
+
+    // Run decisions as tasks on a shared pool instead of a dedicated thread
+    public DecisionScheduler(Runnable decision, LongSupplier nextDelayMs, ScheduledExecutorService pool) {
+        this.decision = decision;
+        this.nextDelayMs = nextDelayMs;
+        this.pool = pool;
+    }
+
+    // Idempotent: a second start while running keeps the existing loop
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        if (pool != null) {
+            synchronized (lock) {
+                if (active) return; // A run from before the last stop re-arms itself
+                if (pending) submit();
+                else armTimer();
+            }
+            return;
+        }
+        thread = new Thread(this::loop, "decision-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        synchronized (lock) {
+            if (timer != null) timer.cancel(false);
+            timer = null;
+            lock.notifyAll();
+        }
+        thread = null;
+    }
+
+    // Wake the loop now; signals that arrive before it runs are merged into one decision
+    public void signal() {
+        synchronized (lock) {
+            if (pending) return;
+            pending = true;
+            if (pool != null) {
+                if (running && !active) submit();
+                return;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    // --- Pool mode ---
+    // Queue one run; the caller holds the lock
+    private void submit() {
+        active = true;
+        if (timer != null) timer.cancel(false);
+        timer = null;
+        pool.execute(this::runTask);
+    }
+
+    private void armTimer() {
+        long delay = Math.max(MIN_DELAY_MS, Math.min(MAX_DELAY_MS, nextDelayMs.getAsLong()));
+        timer = pool.schedule(this::onTimer, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void onTimer() {
+        synchronized (lock) {
+            if (!running || active) return;
+            active = true;
+            timer = null;
+        }
+        runTask();
+    }
+
+    private void runTask() {
+        boolean byEvent;
+        synchronized (lock) {
+            byEvent = pending;
+            pending = false;
+            if (!running) {
+                active = false;
+                return;
+            }
+        }
+
+        if (byEvent) eventWakeups++;
+        else timerWakeups++;
+
+        try {
+            decision.run();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+
+        synchronized (lock) {
+            active = false;
+            if (!running) return;
+            if (pending) submit(); // Signalled while deciding
+            else armTimer();
+        }
+    }
+
+    // --- Dedicated thread mode ---
+    private void loop() {
+        Thread self = Thread.currentThread();
+        while (running && thread == self) {
+            long delay = Math.max(MIN_DELAY_MS, Math.min(MAX_DELAY_MS, nextDelayMs.getAsLong()));
+            long deadline = System.nanoTime() + delay * 1_000_000L;
+            boolean byEvent;
+
+            synchronized (lock) {
+                try {
+                    while (!pending && running) {
+                        long remainingNs = deadline - System.nanoTime();
+                        if (remainingNs <= 0) break;
+                        lock.wait(remainingNs / 1_000_000L, (int) (remainingNs % 1_000_000L));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+                byEvent = pending;
+                pending = false;
+            }
+            if (!running || thread != self) break; // Stopped, or replaced by a restart
+
+            if (byEvent) eventWakeups++;
+            else timerWakeups++;
+
+            try {
+                decision.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public long getEventWakeups() {
+        return eventWakeups;
+    }
+
+    public long getTimerWakeups() {
+        return timerWakeups;
+    }
+
+    // Milliseconds until the bomber reaches the next tile boundary along its heading
+    public static long msToNextTile(Bomber bomber, int tileSize) {
+        if (bomber == null || bomber.getSpeed() <= 0) return MAX_DELAY_MS;
+        int offset;
+        switch (bomber.getOrient() != null ? bomber.getOrient() : "") {
+            case "RIGHT": offset = tileSize - Math.floorMod(bomber.getX(), tileSize); break;
+            case "LEFT": offset = Math.floorMod(bomber.getX(), tileSize); break;
+            case "DOWN": offset = tileSize - Math.floorMod(bomber.getY(), tileSize); break;
+            case "UP": offset = Math.floorMod(bomber.getY(), tileSize); break;
+            default: offset = tileSize;
+        }
+        if (offset == 0) offset = tileSize;
+        return (long) Math.ceil(offset / bomber.getSpeed() * SERVER_FRAME_MS);
+    }
+}
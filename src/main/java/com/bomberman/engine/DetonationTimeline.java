@@ -0,0 +1,160 @@
+package com.bomberman.engine;
+
+import com.bomberman.model.Bomb;
+import com.bomberman.model.GameMap;
+
+import java.util.*;
+
+// Earliest-explosion-time map for all pending bombs, including chain reactions.
+// Simulates detonations in time order with a priority queue: a blast that reaches another
+// bomb sets it off early, and chests destroyed by earlier blasts no longer stop later ones.
+public class DetonationTimeline {
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private GameMap map;
+    private long[] explodeAt = new long[0];     // Earliest time each cell is hit by a blast
+    private long[] chestClearedAt = new long[0]; // Time each chest is destroyed ("future map")
+    private int[] bombAtCell = new int[0];       // Index into the bomb arrays below, -1 if none
+
+    private int bombTotal;
+    private int[] bombIds = new int[8];
+    private int[] bombCells = new int[8];
+    private int[] bombRanges = new int[8];
+    private long[] bombTimes = new long[8];
+    private boolean[] bombDone = new boolean[8];
+
+    private final PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(e -> e[0]));
+
+    // Run the detonation simulation - O(bombs * range * log(bombs) + map)
+    public void compute(GameMap map, Collection<Bomb> bombs) {
+        this.map = map;
+        int cellCount = map.getCellCount();
+        if (explodeAt.length != cellCount) {
+            explodeAt = new long[cellCount];
+            chestClearedAt = new long[cellCount];
+            bombAtCell = new int[cellCount];
+        }
+        Arrays.fill(explodeAt, NEVER);
+        Arrays.fill(chestClearedAt, NEVER);
+        Arrays.fill(bombAtCell, -1);
+
+        loadBombs(bombs);
+
+        queue.clear();
+        for (int i = 0; i < bombTotal; i++) {
+            queue.offer(new long[]{bombTimes[i], i});
+        }
+
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int b = (int) entry[1];
+            if (bombDone[b] || entry[0] != bombTimes[b]) continue; // Stale entry
+            bombDone[b] = true;
+            detonate(b, bombTimes[b]);
+        }
+    }
+
+    private void loadBombs(Collection<Bomb> bombs) {
+        bombTotal = 0;
+        for (Bomb bomb : bombs) {
+            int cell = map.cellAt(bomb.x, bomb.y);
+            if (cell < 0) continue;
+            if (bombTotal == bombIds.length) growBombArrays();
+
+            int i = bombTotal++;
+            bombIds[i] = bomb.id;
+            bombCells[i] = cell;
+            bombRanges[i] = Math.max(0, bomb.range); // Same range the DangerIndex used
+            bombTimes[i] = bomb.createdAt + bomb.lifeTime;
+            bombDone[i] = false;
+
+            // One bomb per cell is expected; if two overlap, chains trigger the earlier fuse
+            int existing = bombAtCell[cell];
+            if (existing < 0 || bombTimes[i] < bombTimes[existing]) {
+                bombAtCell[cell] = i;
+            }
+        }
+    }
+
+    private void detonate(int b, long time) {
+        int center = bombCells[b];
+        hit(center, time);
+        for (int dir = 0; dir < 4; dir++) {
+            int cell = center;
+            for (int i = 1; i <= bombRanges[b]; i++) {
+                cell = map.neighbor(cell, dir);
+                if (cell < 0 || map.isWall(cell)) break;
+
+                if (map.isChest(cell) && chestClearedAt[cell] < time) {
+                    // Chest already gone by now, blast passes through
+                    hit(cell, time);
+                    continue;
+                }
+
+                hit(cell, time);
+                if (map.stopsBlast(cell)) {
+                    if (map.isChest(cell)) {
+                        chestClearedAt[cell] = Math.min(chestClearedAt[cell], time);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private void hit(int cell, long time) {
+        if (time < explodeAt[cell]) {
+            explodeAt[cell] = time;
+        }
+        // Chain reaction: another bomb in the blast goes off now
+        int other = bombAtCell[cell];
+        if (other >= 0 && !bombDone[other] && time < bombTimes[other]) {
+            bombTimes[other] = time;
+            queue.offer(new long[]{time, other});
+        }
+    }
+
+    private void growBombArrays() {
+        int n = bombIds.length * 2;
+        bombIds = Arrays.copyOf(bombIds, n);
+        bombCells = Arrays.copyOf(bombCells, n);
+        bombRanges = Arrays.copyOf(bombRanges, n);
+        bombTimes = Arrays.copyOf(bombTimes, n);
+        bombDone = Arrays.copyOf(bombDone, n);
+    }
+
+    // --- Queries ---
+    // Absolute time (ms) the cell is first hit by a blast, NEVER if no pending bomb reaches it
+    public long explosionTime(int cell) {
+        return cell >= 0 && cell < explodeAt.length ? explodeAt[cell] : NEVER;
+    }
+
+    // Milliseconds from now until the cell explodes, NEVER if it is safe
+    public long timeUntilExplosion(int cell, long now) {
+        long t = explosionTime(cell);
+        return t == NEVER ? NEVER : Math.max(0, t - now);
+    }
+
+    public boolean isThreatened(int cell) {
+        return explosionTime(cell) != NEVER;
+    }
+
+    // Absolute time the chest on this cell is destroyed by pending bombs, NEVER if it survives
+    public long chestClearedAt(int cell) {
+        return cell >= 0 && cell < chestClearedAt.length ? chestClearedAt[cell] : NEVER;
+    }
+
+    // Future map: is the cell walkable at the given time once pending bombs resolve
+    public boolean isWalkableAt(int cell, long time) {
+        if (map.isWalkable(cell)) return true;
+        return map.isChest(cell) && chestClearedAt[cell] <= time;
+    }
+
+    // Effective detonation time of a bomb after chain reactions, NEVER if unknown
+    public long detonationTime(int bombId) {
+        for (int i = 0; i < bombTotal; i++) {
+            if (bombIds[i] == bombId) return bombTimes[i];
+        }
+        return NEVER;
+    }
+}
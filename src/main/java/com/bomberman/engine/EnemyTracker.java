@@ -0,0 +1,283 @@
+package com.bomberman.engine;
+
+import com.bomberman.model.GameMap;
+import com.bomberman.model.Zobrist;
+
+import java.util.*;
+
+// Recent motion of every enemy and a predicted-occupancy heatmap built from it.
+// Each BomberTable slot keeps a ring buffer of its last positions; on every move the enemy's
+// contribution to the heatmap (expected presence per cell over the next HORIZON_MS) is
+// subtracted and re-added, so heat(cell) is always current and O(1) to read.
+// Maintained by the GameState mutators. The heatmap is stored in fixed-size chunks: a snapshot
+// copies only the chunk table, and the next writes copy just the chunks they touch.
+public class EnemyTracker {
+    public static final long HORIZON_MS = 2000;
+
+    private static final int RING = 16;                  // Samples kept per bomber
+    private static final long VELOCITY_WINDOW_MS = 600;  // Velocity is the mean over this window
+    private static final double MOVING_PX_PER_MS = 0.01; // Slower than this counts as standing
+    private static final int MAX_AHEAD = 6;              // Tiles projected along the heading
+    private static final int MAX_CELLS = MAX_AHEAD + 5;  // Contribution cells per enemy
+    private static final float MOVING_CURRENT = 0.3f;    // Share kept on the current cell when moving
+    private static final float STANDING_CURRENT = 0.5f;  // Share kept on the current cell when standing
+    private static final int CHUNK_SHIFT = 6;            // 64 cells (256 bytes) per heat chunk
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    // Ring buffers, slot-major: sample i of slot s lives at s * RING + i
+    private long[] times = new long[0];
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+    private byte[] orients = new byte[0];
+    private int[] head = new int[0];   // Next write index per slot
+    private int[] samples = new int[0];
+
+    // Current contribution of each slot, subtracted before the next one is added
+    private int[] contribCells = new int[0];
+    private float[] contribWeights = new float[0];
+    private int[] contribCount = new int[0];
+    private long[] contribHash = new long[0];
+
+    private float[][] heat = new float[0][];
+    private boolean[] chunkOwned = new boolean[0]; // Chunk not referenced by any snapshot yet
+    private int cellCount;
+    private long heatHash; // XOR of every slot's contribution hash: equal heatmaps, equal hashes
+    private final int[] path = new int[MAX_AHEAD];
+    private final int[] open = new int[4];
+    private int mySlot = BomberTable.NO_SLOT;
+
+    public EnemyTracker() {
+    }
+
+    // Read-only view: only the heatmap is visible through a snapshot. It keeps its own chunk
+    // table, so the writer can swap in copied chunks without the view noticing.
+    private EnemyTracker(EnemyTracker source) {
+        heat = source.heat.clone();
+        cellCount = source.cellCount;
+        heatHash = source.heatHash;
+    }
+
+    // O(cells / 64): the chunk table is copied, the chunks are shared
+    public synchronized EnemyTracker snapshot() {
+        Arrays.fill(chunkOwned, false);
+        return new EnemyTracker(this);
+    }
+
+    // Resize for a (re)parsed map and forget every track; callers re-add bombers
+    public synchronized void reset(int cellCount) {
+        int chunks = (cellCount + CHUNK_MASK) >> CHUNK_SHIFT;
+        heat = new float[chunks][CHUNK_MASK + 1];
+        chunkOwned = new boolean[chunks];
+        Arrays.fill(chunkOwned, true);
+        this.cellCount = cellCount;
+        Arrays.fill(samples, 0);
+        Arrays.fill(head, 0);
+        Arrays.fill(contribCount, 0);
+        Arrays.fill(contribHash, 0);
+        heatHash = 0;
+    }
+
+    // Our own slot is never tracked
+    public synchronized void setMySlot(int slot) {
+        if (slot == mySlot) return;
+        if (slot >= 0 && slot < samples.length) forget(slot);
+        mySlot = slot;
+    }
+
+    // --- Updates ---
+    // Record a position sample and re-project the enemy - O(MAX_CELLS)
+    public synchronized void update(GameMap map, int slot, int x, int y, String orient, boolean alive, long now) {
+        if (slot < 0 || slot == mySlot || !map.isLoaded()) return;
+        ensureSlot(slot);
+        int cell = alive ? map.cellAt(x, y) : -1;
+        if (cell < 0 || cell >= cellCount) {
+            forget(slot);
+            return;
+        }
+
+        int last = samples[slot] > 0 ? slot * RING + (head[slot] + RING - 1) % RING : -1;
+        if (last >= 0 && times[last] > now) samples[slot] = 0; // Clock went back (new game): restart
+        int i = slot * RING + head[slot];
+        times[i] = now;
+        xs[i] = x;
+        ys[i] = y;
+        orients[i] = orientCode(orient);
+        head[slot] = (head[slot] + 1) % RING;
+        if (samples[slot] < RING) samples[slot]++;
+
+        withdraw(slot);
+        project(map, slot, cell);
+        long hash = 0;
+        int base = slot * MAX_CELLS;
+        for (int k = 0; k < contribCount[slot]; k++) {
+            hash ^= Zobrist.key(Zobrist.HEAT, slot * cellCount + contribCells[base + k],
+                    Float.floatToIntBits(contribWeights[base + k]));
+        }
+        contribHash[slot] = hash;
+        heatHash ^= hash;
+    }
+
+    // Dead, disconnected or off the map: drop the track and its heat
+    public synchronized void remove(int slot) {
+        if (slot >= 0 && slot < samples.length) forget(slot);
+    }
+
+    private void forget(int slot) {
+        withdraw(slot);
+        samples[slot] = 0;
+        head[slot] = 0;
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot < samples.length) return;
+        int slots = Math.max(4, slot + 1);
+        times = Arrays.copyOf(times, slots * RING);
+        xs = Arrays.copyOf(xs, slots * RING);
+        ys = Arrays.copyOf(ys, slots * RING);
+        orients = Arrays.copyOf(orients, slots * RING);
+        head = Arrays.copyOf(head, slots);
+        samples = Arrays.copyOf(samples, slots);
+        contribCells = Arrays.copyOf(contribCells, slots * MAX_CELLS);
+        contribWeights = Arrays.copyOf(contribWeights, slots * MAX_CELLS);
+        contribCount = Arrays.copyOf(contribCount, slots);
+        contribHash = Arrays.copyOf(contribHash, slots);
+    }
+
+    // Copy-on-write per chunk: only the first write to a chunk after a snapshot copies it
+    private void addHeat(int cell, float delta) {
+        int c = cell >> CHUNK_SHIFT;
+        float[] chunk = heat[c];
+        if (!chunkOwned[c]) {
+            chunk = chunk.clone();
+            heat[c] = chunk;
+            chunkOwned[c] = true;
+        }
+        int i = cell & CHUNK_MASK;
+        chunk[i] = Math.max(0f, chunk[i] + delta); // Clamp float drift
+    }
+
+    private void withdraw(int slot) {
+        int n = contribCount[slot];
+        if (n == 0) return;
+        int base = slot * MAX_CELLS;
+        for (int k = 0; k < n; k++) {
+            addHeat(contribCells[base + k], -contribWeights[base + k]);
+        }
+        contribCount[slot] = 0;
+        heatHash ^= contribHash[slot];
+        contribHash[slot] = 0;
+    }
+
+    private void contribute(int slot, int cell, float weight) {
+        int base = slot * MAX_CELLS;
+        int n = contribCount[slot];
+        for (int k = 0; k < n; k++) {
+            if (contribCells[base + k] == cell) {
+                contribWeights[base + k] += weight;
+                addHeat(cell, weight);
+                return;
+            }
+        }
+        contribCells[base + n] = cell;
+        contribWeights[base + n] = weight;
+        contribCount[slot] = n + 1;
+        addHeat(cell, weight);
+    }
+
+    // Spread one unit of presence over the cells the enemy is likely to visit within the horizon:
+    // moving enemies along their heading (as far as their speed carries them), standing enemies
+    // over their cell and its open neighbors, leaning toward the way they face
+    private void project(GameMap map, int slot, int cell) {
+        int dir = heading(slot);
+        if (dir >= 0) {
+            int ahead = (int) Math.min(MAX_AHEAD, Math.round(speed(slot) * HORIZON_MS / map.getTileSize()));
+            int n = 0;
+            int current = cell;
+            while (n < ahead) {
+                current = map.neighbor(current, dir);
+                if (current < 0 || !map.isWalkable(current)) break;
+                path[n++] = current;
+            }
+            if (n > 0) {
+                contribute(slot, cell, MOVING_CURRENT);
+                for (int k = 0; k < n; k++) contribute(slot, path[k], (1f - MOVING_CURRENT) / n);
+                return;
+            }
+            // Blocked ahead: it has to turn, treat it as standing
+        }
+
+        int facing = orients[slot * RING + (head[slot] + RING - 1) % RING];
+        int shares = 0;
+        int n = 0;
+        for (int d = 0; d < 4; d++) {
+            int next = map.neighbor(cell, d);
+            if (next < 0 || !map.isWalkable(next)) continue;
+            open[n++] = next;
+            shares += d == facing ? 2 : 1;
+        }
+        if (n == 0) {
+            contribute(slot, cell, 1f);
+            return;
+        }
+        contribute(slot, cell, STANDING_CURRENT);
+        float share = (1f - STANDING_CURRENT) / shares;
+        for (int k = 0; k < n; k++) {
+            boolean faced = facing >= 0 && map.neighbor(cell, facing) == open[k];
+            contribute(slot, open[k], faced ? 2 * share : share);
+        }
+    }
+
+    // --- Motion estimates from the ring buffer ---
+    // Oldest sample inside the velocity window, -1 with fewer than two samples
+    private int windowStart(int slot) {
+        int n = samples[slot];
+        if (n < 2) return -1;
+        int newest = slot * RING + (head[slot] + RING - 1) % RING;
+        int oldest = -1;
+        for (int k = 1; k < n; k++) {
+            int i = slot * RING + (head[slot] + RING - 1 - k) % RING;
+            if (times[newest] - times[i] > VELOCITY_WINDOW_MS) break;
+            oldest = i;
+        }
+        return oldest;
+    }
+
+    // Mean speed over the window in px/ms, 0 when unknown
+    private double speed(int slot) {
+        int oldest = windowStart(slot);
+        if (oldest < 0) return 0;
+        int newest = slot * RING + (head[slot] + RING - 1) % RING;
+        long dt = times[newest] - times[oldest];
+        if (dt <= 0) return 0;
+        return Math.hypot(xs[newest] - xs[oldest], ys[newest] - ys[oldest]) / dt;
+    }
+
+    // GameMap.DIR_* of the dominant motion axis, -1 when standing or unknown
+    private int heading(int slot) {
+        if (speed(slot) < MOVING_PX_PER_MS) return -1;
+        int oldest = windowStart(slot);
+        int newest = slot * RING + (head[slot] + RING - 1) % RING;
+        int dx = xs[newest] - xs[oldest];
+        int dy = ys[newest] - ys[oldest];
+        if (Math.abs(dx) >= Math.abs(dy)) return dx > 0 ? GameMap.DIR_RIGHT : GameMap.DIR_LEFT;
+        return dy > 0 ? GameMap.DIR_DOWN : GameMap.DIR_UP;
+    }
+
+    private static byte orientCode(String orient) {
+        if (orient == null) return -1;
+        for (int d = 0; d < 4; d++) {
+            if (GameMap.DIR_NAMES[d].equals(orient)) return (byte) d;
+        }
+        return -1;
+    }
+
+    // --- Queries (lock-free on snapshot views) ---
+    public long getHeatHash() {
+        return heatHash;
+    }
+
+    // Expected number of enemies on the cell, averaged over the next HORIZON_MS - O(1)
+    public float heat(int cell) {
+        return cell >= 0 && cell < cellCount ? heat[cell >> CHUNK_SHIFT][cell & CHUNK_MASK] : 0f;
+    }
+}
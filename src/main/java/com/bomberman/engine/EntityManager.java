@@ -8,20 +8,16 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class EntityManager {
-    // Map representation - 2D array
-    private String[][] map;
-
-    // Bombers indexed by UID for O(1) access
-    private final Map<String, Bomber> bombers = new ConcurrentHashMap<>();
+    // Map representation - packed tile grid shared with GameState
+    private GameMap map;
 
     // Bombs indexed by ID for O(1) access
     private final Map<Integer, Bomb> bombs = new ConcurrentHashMap<>();
 
-    // Chests indexed by Position for O(1) access
-    private final Map<Position, Chest> chests = new ConcurrentHashMap<>();
-
-    // Items indexed by Position for O(1) access
-    private final Map<Position, Item> items = new ConcurrentHashMap<>();
+    // Chests and items keyed by packed (x, y): O(1) access without key objects.
+    // Not thread-safe: GameState serializes writers and hands readers snapshots.
+    private final CoordMap<Chest> chests = new CoordMap<>(256);
+    private final CoordMap<Item> items = new CoordMap<>(64);
 
     // Current bot's UID
     private String myUid;
@@ -30,35 +26,19 @@ public class EntityManager {
     private boolean gameStarted = false;
     private boolean gameFinished = false;
     // Map operations
-    public void setMap(String[][] map) {
+    public void setMap(GameMap map) {
         this.map = map;
     }
 
-    public String[][] getMap() {
+    public GameMap getMap() {
         return map;
     }
 
-    public String getMapCell(int row, int col) {
-        if (map != null && row >= 0 && row < map.length && col >= 0 && col < map[0].length) {
-            return map[row][col];
+    public int getMapTile(int row, int col) {
+        if (map != null && map.isLoaded() && map.inBounds(row, col)) {
+            return map.getTile(map.cellId(row, col));
         }
-        return null;
-    }
-    // Bomber operations
-    public void addBomber(Bomber bomber) {
-        bombers.put(bomber.uid, bomber);
-    }
-
-    public void removeBomber(String uid) {
-        bombers.remove(uid);
-    }
-
-    public Bomber getBomber(String uid) {
-        return bombers.get(uid);
-    }
-
-    public void updateBomber(Bomber bomber) {
-        bombers.put(bomber.uid, bomber);
+        return GameMap.TILE_EMPTY;
     }
     // Bomb operations
     public void addBomb(Bomb bomb) {
@@ -74,29 +54,27 @@ public class EntityManager {
     }
     // Chest operations
     public void addChest(Chest chest) {
-        Position pos = new Position(chest.x, chest.y);
-        chests.put(pos, chest);
+        chests.put(chest.x, chest.y, chest);
     }
 
     public void removeChest(int x, int y) {
-        chests.remove(new Position(x, y));
+        chests.remove(x, y);
     }
 
     public Chest getChest(int x, int y) {
-        return chests.get(new Position(x, y));
+        return chests.get(x, y);
     }
     // Item operations
     public void addItem(Item item) {
-        Position pos = new Position(item.x, item.y);
-        items.put(pos, item);
+        items.put(item.x, item.y, item);
     }
 
     public void removeItem(int x, int y) {
-        items.remove(new Position(x, y));
+        items.remove(x, y);
     }
 
     public Item getItem(int x, int y) {
-        return items.get(new Position(x, y));
+        return items.get(x, y);
     }
     // Game status
     public void setMyUid(String uid) {
@@ -124,22 +102,10 @@ public class EntityManager {
     }
     // Utility: check if a position is walkable (no wall/chest)
     public boolean isPositionWalkable(int x, int y) {
-        if (map == null) return false;
-        int cellX = x / 40;
-        int cellY = y / 40;
-        if (cellY < 0 || cellY >= map.length || cellX < 0 || cellX >= map[0].length) return false;
-        String cellType = map[cellY][cellX];
-        return cellType == null;
-    }
-    public void parseBombers(JSONArray bombersArray) {
-        bombers.clear();
-        for (int i = 0; i < bombersArray.length(); i++) {
-            JSONObject bomberObj = bombersArray.getJSONObject(i);
-            Bomber bomber = new Bomber(bomberObj);
-            bombers.put(bomber.uid, bomber);
-        }
+        if (map == null || !map.isLoaded()) return false;
+        int cell = map.cellAt(x, y);
+        return cell >= 0 && map.isWalkable(cell);
     }
-
     public void parseBombs(JSONArray bombsArray) {
         bombs.clear();
         for (int i = 0; i < bombsArray.length(); i++) {
@@ -153,10 +119,8 @@ public class EntityManager {
         chests.clear();
         for (int i = 0; i < chestsArray.length(); i++) {
             JSONObject chestObj = chestsArray.getJSONObject(i);
-            int x = chestObj.getInt("x");
-            int y = chestObj.getInt("y");
-            Position pos = new Position(x, y);
-            chests.put(pos, new Chest(chestObj));
+            Chest chest = new Chest(chestObj);
+            chests.put(chest.x, chest.y, chest);
         }
     }
 
@@ -165,25 +129,96 @@ public class EntityManager {
         for (int i = 0; i < itemsArray.length(); i++) {
             JSONObject itemObj = itemsArray.getJSONObject(i);
             Item item = new Item(itemObj);
-            items.put(new Position(item.x, item.y), item);
+            items.put(item.x, item.y, item);
+        }
+    }
+
+    // Model-object counterparts of the parse methods, for callers that don't hold JSON
+    public void setBombs(Collection<Bomb> list) {
+        bombs.clear();
+        for (Bomb bomb : list) bombs.put(bomb.id, bomb);
+    }
+
+    public void setChests(Collection<Chest> list) {
+        chests.clear();
+        for (Chest chest : list) chests.put(chest.x, chest.y, chest);
+    }
+
+    public void setItems(Collection<Item> list) {
+        items.clear();
+        for (Item item : list) items.put(item.x, item.y, item);
+    }
+
+    // Diff a full chest list against the current set: unchanged chests keep their entries,
+    // only additions and removals are applied and reported - O(chests)
+    public void diffChests(Collection<Chest> incoming, List<Chest> added, List<Chest> removed) {
+        boolean[] seen = new boolean[chests.capacity()]; // Marks by slot of the current map
+        List<Chest> fresh = new ArrayList<>();
+        int kept = 0;
+        for (Chest chest : incoming) {
+            int slot = chests.indexOf(chest.x, chest.y);
+            if (slot < 0) fresh.add(chest);
+            else if (!seen[slot]) {
+                seen[slot] = true;
+                kept++;
+            }
+        }
+        if (kept < chests.size()) collectUnseen(chests, seen, removed);
+        for (Chest chest : removed) chests.remove(chest.x, chest.y);
+        for (Chest chest : fresh) {
+            if (chests.putIfAbsent(chest.x, chest.y, chest) == null) added.add(chest);
         }
     }
 
+    // Same for items; an item whose type changed in place counts as removed and added
+    public void diffItems(Collection<Item> incoming, List<Item> added, List<Item> removed) {
+        boolean[] seen = new boolean[items.capacity()];
+        List<Item> fresh = new ArrayList<>();
+        int kept = 0;
+        for (Item item : incoming) {
+            int slot = items.indexOf(item.x, item.y);
+            if (slot < 0) {
+                fresh.add(item);
+                continue;
+            }
+            if (!seen[slot]) {
+                seen[slot] = true;
+                kept++;
+            }
+            Item current = items.valueAt(slot);
+            if (Objects.equals(current.type, item.type)) continue;
+            removed.add(current);
+            items.setValueAt(slot, item);
+            added.add(item);
+        }
+        if (kept < items.size()) {
+            int replaced = removed.size();
+            collectUnseen(items, seen, removed);
+            for (int i = replaced; i < removed.size(); i++) items.remove(removed.get(i).x, removed.get(i).y);
+        }
+        for (Item item : fresh) {
+            if (items.putIfAbsent(item.x, item.y, item) == null) added.add(item);
+        }
+    }
+
+    // Values in slots not marked seen - O(capacity)
+    private static <V> void collectUnseen(CoordMap<V> map, boolean[] seen, List<V> out) {
+        for (int slot = 0; slot < seen.length; slot++) {
+            V value = map.valueAt(slot);
+            if (value != null && !seen[slot]) out.add(value);
+        }
+    }
 
-    public Map<String, Bomber> getBombers() { return bombers; }
     public Map<Integer, Bomb> getBombs() { return bombs; }
-    public Map<Position, Chest> getChests() { return chests; }
-    public Map<Position, Item> getItems() { return items; }
+    public CoordMap<Chest> getChests() { return chests; }
+    public CoordMap<Item> getItems() { return items; }
 
     // Helper methods for lookups
-    public Bomber getBomberByUid(String uid) {
-        return bombers.get(uid);
-    }
     public Bomb getBombById(int id) {
         return bombs.get(id);
     }
     public Item getItemByPosition(int x, int y) {
-        return items.get(new Position(x, y));
+        return items.get(x, y);
     }
     // Add/remove/update methods can be added as needed
 }
@@ -0,0 +1,254 @@
+package com.bomberman.engine;
+
+import com.bomberman.ingest.PayloadBinder;
+import com.bomberman.metrics.LatencyHistogram;
+import com.bomberman.metrics.Metrics;
+import com.bomberman.model.Bomber;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Applies one server event to the GameState. Shared by the socket listeners and the replayer,
+// so a recorded session goes through exactly the same code as live traffic.
+public class EventApplier {
+    public static final String USER = "user";
+    public static final String START = "start";
+    public static final String PLAYER_MOVE = "player_move";
+    public static final String NEW_BOMB = "new_bomb";
+    public static final String BOMB_EXPLODE = "bomb_explode";
+    public static final String MAP_UPDATE = "map_update";
+    public static final String USER_DIE_UPDATE = "user_die_update";
+    public static final String CHEST_DESTROYED = "chest_destroyed";
+    public static final String ITEM_COLLECTED = "item_collected";
+    public static final String NEW_ENEMY = "new_enemy";
+    public static final String FINISH = "finish";
+
+    // Every event the bot subscribes to; the index doubles as the event code in recordings
+    public static final String[] EVENTS = {
+            USER, START, PLAYER_MOVE, NEW_BOMB, BOMB_EXPLODE, MAP_UPDATE,
+            USER_DIE_UPDATE, CHEST_DESTROYED, ITEM_COLLECTED, NEW_ENEMY, FINISH
+    };
+
+    private static final Map<String, Integer> CODES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < EVENTS.length; i++) CODES.put(EVENTS[i], i);
+    }
+
+    private final GameState gameState;
+    private final Bomber scratchBomber = new Bomber("", 0, 0); // Reused by streaming player_move binds
+    private String myUid;
+    private boolean verbose = true;
+
+    public EventApplier(GameState gameState) {
+        this.gameState = gameState;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public String getMyUid() {
+        return myUid;
+    }
+
+    // Index of an event in EVENTS, -1 for anything else
+    public static int codeOf(String event) {
+        Integer code = CODES.get(event);
+        return code != null ? code : -1;
+    }
+
+    // Returns true when the event should wake the decision loop
+    public boolean apply(String event, Object payload) {
+        long start = System.nanoTime();
+        try {
+            return dispatch(event, payload);
+        } finally {
+            LatencyHistogram histogram = Metrics.event(codeOf(event));
+            if (histogram != null) histogram.recordSince(start);
+        }
+    }
+
+    // Same as apply for payloads still in text form (recordings, raw transports): the hot and
+    // large events are bound in one streaming pass without building a JSONObject tree
+    public boolean applyJson(String event, String json) {
+        long start = System.nanoTime();
+        try {
+            switch (event) {
+                case USER: onUserJoined(PayloadBinder.bindJoin(json)); return true;
+                case PLAYER_MOVE: return onPlayerMove(gameState.updateBomber(PayloadBinder.bindBomber(json, scratchBomber)));
+                case NEW_BOMB: gameState.addBomb(PayloadBinder.bindBomb(json)); return true;
+                case BOMB_EXPLODE: onBombExplode(PayloadBinder.bindBombId(json)); return true;
+                case CHEST_DESTROYED: onChestDestroyed(PayloadBinder.bindChestDestroyed(json)); return true;
+                default: return dispatch(event, json == null || json.isEmpty() ? null : new JSONObject(json));
+            }
+        } finally {
+            LatencyHistogram histogram = Metrics.event(codeOf(event));
+            if (histogram != null) histogram.recordSince(start);
+        }
+    }
+
+    private boolean dispatch(String event, Object payload) {
+        JSONObject data = payload instanceof JSONObject ? (JSONObject) payload : new JSONObject();
+        switch (event) {
+            case USER: onUserJoined(data); return true;
+            case START: onGameStart(); return false;
+            case PLAYER_MOVE: return onPlayerMove(data);
+            case NEW_BOMB: gameState.addBomb(data); return true;
+            case BOMB_EXPLODE: onBombExplode(data); return true;
+            case MAP_UPDATE: onMapUpdate(data); return false;
+            case USER_DIE_UPDATE: onUserDie(data); return false;
+            case CHEST_DESTROYED: onChestDestroyed(data); return true;
+            case ITEM_COLLECTED: onItemCollected(data); return false;
+            case NEW_ENEMY: onNewEnemy(data); return false;
+            case FINISH: onGameFinish(); return false;
+            default: return false;
+        }
+    }
+
+    private void onUserJoined(JSONObject data) {
+
+        // Parse map
+        JSONArray mapArray = data.getJSONArray("map");
+        gameState.parseMap(mapArray);
+
+        // Parse bombers
+        JSONArray bombers = data.getJSONArray("bombers");
+        gameState.parseBombers(bombers);
+
+        // Find my UID
+        for (int i = 0; i < bombers.length(); i++) {
+            JSONObject bomber = bombers.getJSONObject(i);
+            myUid = bomber.getString("uid");
+            gameState.setMyUid(myUid);
+            break; // First bomber is me
+        }
+
+        // Parse bombs
+        if (data.has("bombs")) {
+            JSONArray bombs = data.getJSONArray("bombs");
+            gameState.parseBombs(bombs);
+        }
+
+        // Parse chests
+        if (data.has("chests")) {
+            JSONArray chests = data.getJSONArray("chests");
+            gameState.parseChests(chests);
+        }
+
+        // Parse items
+        if (data.has("items")) {
+            JSONArray items = data.getJSONArray("items");
+            gameState.parseItems(items);
+        }
+
+        joined(mapArray.length(), bombers.length());
+    }
+
+    // Streaming counterpart of onUserJoined, applied in the same order
+    private void onUserJoined(PayloadBinder.JoinPayload join) {
+        gameState.loadMap(join.tiles, join.rows, join.cols);
+        gameState.setBombers(join.bombers);
+        if (!join.bombers.isEmpty()) {
+            myUid = join.bombers.get(0).uid; // First bomber is me
+            gameState.setMyUid(myUid);
+        }
+        if (join.bombs != null) gameState.setBombs(join.bombs);
+        if (join.chests != null) gameState.setChests(join.chests);
+        if (join.items != null) gameState.setItems(join.items);
+        joined(join.rows, join.bombers.size());
+    }
+
+    private void joined(int rows, int bomberCount) {
+        // Summary only: dumping the whole join payload costs more than parsing it
+        if (verbose) System.out.println("Game state initialized (" + rows + " rows, " + bomberCount + " bombers). My UID: " + myUid);
+
+        // Start bot immediately in practice mode (no start event)
+        // In competition mode, wait for start event
+        gameState.setGameStarted(true);
+    }
+
+    private void onGameStart() {
+        // This event only fires in competition mode
+        gameState.setGameStarted(true);
+        if (verbose) System.out.println("Game started! (Competition mode)");
+    }
+
+    private boolean onPlayerMove(JSONObject data) {
+        return onPlayerMove(gameState.updateBomber(data));
+    }
+
+    private boolean onPlayerMove(int slot) {
+        return slot == gameState.getMySlot(); // Own move acknowledged
+    }
+
+    private void onBombExplode(JSONObject data) {
+        onBombExplode(data.getInt("id"));
+    }
+
+    private void onBombExplode(int bombId) {
+        gameState.removeBomb(bombId);
+        if (verbose) System.out.println("Bomb exploded " + bombId);
+    }
+
+    private void onMapUpdate(JSONObject data) {
+        if (data.has("chests")) {
+            gameState.parseChests(data.getJSONArray("chests"));
+        }
+        if (data.has("items")) {
+            gameState.parseItems(data.getJSONArray("items"));
+        }
+    }
+
+    private void onUserDie(JSONObject data) {
+        if (data.has("killed")) {
+            JSONObject killed = data.getJSONObject("killed");
+            String killedUid = killed.getString("uid");
+            gameState.removeBomber(killedUid);
+        }
+        if (data.has("killer")) {
+            gameState.updateBomber(data.getJSONObject("killer"));
+        }
+    }
+
+    private void onChestDestroyed(JSONObject data) {
+        int x = data.getInt("x");
+        int y = data.getInt("y");
+        gameState.removeChest(x, y);
+
+        if (data.has("item") && !data.isNull("item")) {
+            JSONObject item = data.getJSONObject("item");
+            gameState.addItem(item);
+        }
+    }
+
+    private void onChestDestroyed(PayloadBinder.ChestDestroyed data) {
+        gameState.removeChest(data.x, data.y);
+        if (data.item != null) gameState.addItem(data.item);
+    }
+
+    private void onItemCollected(JSONObject data) {
+        if (data.has("item")) {
+            JSONObject item = data.getJSONObject("item");
+            int x = item.getInt("x");
+            int y = item.getInt("y");
+            gameState.removeItem(x, y);
+        }
+        if (data.has("bomber") && !data.isNull("bomber")) {
+            gameState.updateBomber(data.getJSONObject("bomber"));
+        }
+    }
+
+    private void onNewEnemy(JSONObject data) {
+        if (data.has("bomber")) {
+            gameState.updateBomber(data.getJSONObject("bomber"));
+        }
+    }
+
+    private void onGameFinish() {
+        if (verbose) System.out.println("Game finished!");
+        gameState.setGameStarted(false);
+    }
+}
@@ -0,0 +1,166 @@
+package com.bomberman.engine;
+
+import com.bomberman.metrics.Metrics;
+import com.bomberman.model.*;
+
+import java.util.*;
+
+// Immutable, consistent view of the game state for one decision tick.
+// Published by GameState with a single volatile swap; unchanged parts (tile grid, indexes,
+// entity maps) are shared with the previous snapshot instead of copied.
+public final class GameSnapshot {
+    private final long epoch;
+    private final String myUid;
+    private final boolean gameStarted;
+    private final GameMap gameMap;
+    private final DangerIndex danger;
+    private final OccupancyIndex occupancy;
+    private final EnemyTracker enemies;
+    private final BomberTable bombers;
+    private final int mySlot;
+    private final Map<Integer, Bomb> bombs;
+    private final CoordMap<Chest> chests;
+    private final CoordMap<Item> items;
+    private final LazyTimeline timeline;
+
+    // Model-object views, materialized from the table on first use
+    private volatile Bomber myBomber;
+    private volatile Map<String, Bomber> bomberMap;
+
+    // Detonation timeline computed on first use, shared by snapshots with the same bombs and tiles
+    static final class LazyTimeline {
+        private DetonationTimeline value;
+
+        synchronized DetonationTimeline get(GameSnapshot snapshot) {
+            if (value == null) {
+                long start = System.nanoTime();
+                value = new DetonationTimeline();
+                value.compute(snapshot.gameMap, snapshot.bombs.values());
+                Metrics.DETONATION_TIMELINE.recordSince(start);
+            }
+            return value;
+        }
+    }
+
+    GameSnapshot(long epoch, String myUid, boolean gameStarted, GameMap gameMap, DangerIndex danger,
+                 OccupancyIndex occupancy, EnemyTracker enemies, BomberTable bombers, int mySlot, Map<Integer, Bomb> bombs,
+                 CoordMap<Chest> chests, CoordMap<Item> items, LazyTimeline timeline) {
+        this.epoch = epoch;
+        this.myUid = myUid;
+        this.gameStarted = gameStarted;
+        this.gameMap = gameMap;
+        this.danger = danger;
+        this.occupancy = occupancy;
+        this.enemies = enemies;
+        this.bombers = bombers;
+        this.mySlot = mySlot;
+        this.bombs = bombs;
+        this.chests = chests;
+        this.items = items;
+        this.timeline = timeline;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public String getMyUid() {
+        return myUid;
+    }
+
+    public boolean isGameStarted() {
+        return gameStarted;
+    }
+
+    public GameMap getGameMap() {
+        return gameMap;
+    }
+
+    // Our bomber as a model object, built once per snapshot; null before we have joined
+    public Bomber getMyBomber() {
+        Bomber me = myBomber;
+        if (me == null && bombers.isPresent(mySlot)) {
+            me = bombers.toBomber(mySlot);
+            myBomber = me;
+        }
+        return me;
+    }
+
+    public int getMySlot() {
+        return mySlot;
+    }
+
+    // Struct-of-arrays bomber state; hot code should read fields by slot from here
+    public BomberTable getBomberTable() {
+        return bombers;
+    }
+
+    // Every present bomber by uid, built once per snapshot - O(bombers)
+    public Map<String, Bomber> getBombers() {
+        Map<String, Bomber> map = bomberMap;
+        if (map == null) {
+            map = new LinkedHashMap<>();
+            for (int slot = 0; slot < bombers.size(); slot++) {
+                if (bombers.isPresent(slot)) map.put(bombers.uid(slot), bombers.toBomber(slot));
+            }
+            map = Collections.unmodifiableMap(map);
+            bomberMap = map;
+        }
+        return map;
+    }
+
+    public Map<Integer, Bomb> getBombs() {
+        return bombs;
+    }
+
+    // Read-only views keyed by pixel coordinate; iterate by slot (capacity/valueAt) in hot loops
+    public CoordMap<Chest> getChests() {
+        return chests;
+    }
+
+    public CoordMap<Item> getItems() {
+        return items;
+    }
+
+    public OccupancyIndex getOccupancy() {
+        return occupancy;
+    }
+
+    // Zobrist hash of walls/chests, bombs (with range) and bomber cells; equal hashes mean the
+    // decision-relevant board is (with overwhelming probability) the same - O(1)
+    public long getStateHash() {
+        return gameMap.getTileHash() ^ danger.getBombHash() ^ occupancy.getBomberHash();
+    }
+
+    // Predicted enemy occupancy over the next few seconds
+    public EnemyTracker getEnemyTracker() {
+        return enemies;
+    }
+
+    // Cell id containing a pixel coordinate, or -1 when off the map
+    public int cellAt(double x, double y) {
+        return gameMap.isLoaded() ? gameMap.cellAt(x, y) : -1;
+    }
+
+    // O(1) danger lookup by cell id
+    public boolean isDangerCell(int cell) {
+        return danger.isDanger(cell);
+    }
+
+    public boolean isInDangerZone(int x, int y) {
+        return danger.isDanger(cellAt(x, y));
+    }
+
+    // Earliest-explosion-time map with chain reactions, computed at most once per bomb/tile change
+    public DetonationTimeline getDetonationTimeline() {
+        return timeline.get(this);
+    }
+
+    DangerIndex danger() {
+        return danger;
+    }
+
+    LazyTimeline timelineHolder() {
+        return timeline;
+    }
+}
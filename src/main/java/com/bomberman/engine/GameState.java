@@ -3,142 +3,503 @@ package com.bomberman.engine;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import com.bomberman.metrics.Metrics;
 import com.bomberman.model.Bomb;
 import com.bomberman.model.Bomber;
+import com.bomberman.model.Chest;
 import com.bomberman.model.GameMap;
 import com.bomberman.model.Item;
-import com.bomberman.model.Position;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
 
+// Writer side of the game state. Socket listeners mutate it (serialized by the monitor) and
+// only mark it stale; the next snapshot() builds one immutable GameSnapshot covering every
+// change since the previous one, so events between two decisions cost a single copy.
 public class GameState {
+    // Parts of the state that changed since the last publish
+    private static final int DIRTY_TILES = 1;
+    private static final int DIRTY_BOMBERS = 1 << 1;
+    private static final int DIRTY_BOMBS = 1 << 2;
+    private static final int DIRTY_CHESTS = 1 << 3;
+    private static final int DIRTY_ITEMS = 1 << 4;
+    private static final int DIRTY_ALL = 0xFF;
+
     private final GameMap gameMap = new GameMap();
     private final EntityManager entityManager = new EntityManager();
-    private final DangerZoneCalculator dangerZoneCalculator = new DangerZoneCalculator();
+    private final DangerIndex dangerIndex = new DangerIndex();
+    private final OccupancyIndex occupancy = new OccupancyIndex();
+    private final EnemyTracker tracker = new EnemyTracker();
+    private final BomberTable bombers = new BomberTable(); // Replaces the uid-keyed bomber map
     private String myUid;
+    private volatile int mySlot = BomberTable.NO_SLOT;
+    private LongSupplier clock = System::currentTimeMillis; // Timestamps enemy motion samples
+
+    private int dirty = DIRTY_ALL;
+    private volatile boolean stale; // Set by every mutation, cleared when the next snapshot is built
+    private volatile GameSnapshot current;
+
+    // Change notifications are queued while a mutator runs and delivered once the monitor is
+    // released, so a listener's snapshot() already contains them and a listener never blocks
+    // the socket writers
+    private static final int CHANGE_OPENED = 0;
+    private static final int CHANGE_BLOCKED = 1;
+    private static final int CHANGE_ITEM_ADDED = 2;
+    private static final int CHANGE_ITEM_REMOVED = 3;
+
+    private static final class Change {
+        final int kind;
+        final int cell;
+        final Item item;
+
+        Change(int kind, int cell, Item item) {
+            this.kind = kind;
+            this.cell = cell;
+            this.item = item;
+        }
+    }
+
+    private final List<StateChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<Change> pendingChanges = new ArrayList<>();
+    private boolean chestTilesSynced; // First chest list after a map load is reconciled against every tile
+
+    public GameState() {
+        entityManager.setMap(gameMap);
+        publish();
+    }
 
-    public void parseMap(JSONArray mapArray) {
+    public synchronized void parseMap(JSONArray mapArray) {
         gameMap.parseMap(mapArray);
+        mapLoaded();
+    }
+
+    // Same as parseMap for a grid of GameMap tile codes (simulator, replays)
+    public synchronized void loadMap(byte[] tiles, int rows, int cols) {
+        gameMap.loadTiles(tiles, rows, cols);
+        mapLoaded();
+    }
+
+    private void mapLoaded() {
+        chestTilesSynced = false;
+        rebuildDangerIndex();
+        rebuildOccupancy();
+        rebuildTracker();
+        changed(DIRTY_ALL);
     }
 
     // Only keep parseBombs since it also updates danger zones
-    public void parseBombs(JSONArray bombsArray) {
+    public synchronized void parseBombs(JSONArray bombsArray) {
         entityManager.parseBombs(bombsArray);
+        bombsReplaced();
     }
 
-    public Bomber getMyBomber() {
-        return entityManager.getBomberByUid(myUid);
+    public synchronized void setBombs(Collection<Bomb> bombs) {
+        entityManager.setBombs(bombs);
+        bombsReplaced();
     }
 
-    public List<Bomber> getEnemies() {
-        List<Bomber> enemies = new ArrayList<>();
-        for (Bomber bomber : entityManager.getBombers().values()) {
-            if (!bomber.uid.equals(myUid) && bomber.isAlive) {
-                enemies.add(bomber);
-            }
-        }
-        return enemies;
+    private void bombsReplaced() {
+        for (Bomb bomb : entityManager.getBombs().values()) recordRange(bomb);
+        rebuildDangerIndex();
+        rebuildOccupancy();
+        changed(DIRTY_BOMBS);
+    }
+
+    public Bomber getMyBomber() {
+        return snapshot().getMyBomber();
     }
 
-    public void setMyUid(String uid) {
+    public synchronized void setMyUid(String uid) {
         this.myUid = uid;
+        refreshMySlot();
+        changed(DIRTY_BOMBERS);
+    }
+
+    // Our slot once the uid has been seen in a bomber list or move
+    private void refreshMySlot() {
+        mySlot = bombers.slotOf(myUid);
+        occupancy.setMySlot(mySlot);
+        tracker.setMySlot(mySlot);
+    }
+
+    // Simulated games and replays timestamp enemy motion on their own clock
+    public synchronized void setClock(LongSupplier clock) {
+        this.clock = clock;
     }
 
     public String getMyUid() {
         return myUid;
     }
 
+    // Our bomber's slot without building a snapshot (per-event checks on the writer thread)
+    public int getMySlot() {
+        return mySlot;
+    }
+
 
         // Wrappers for BombermanBot.java compatibility
-    public void parseBombers(JSONArray bombersArray) {
-        entityManager.parseBombers(bombersArray);
+    public synchronized void parseBombers(JSONArray bombersArray) {
+        bombers.clear();
+        for (int i = 0; i < bombersArray.length(); i++) {
+            bombers.put(bombersArray.getJSONObject(i));
+        }
+        bombersReplaced();
     }
 
     public void parseChests(JSONArray chestsArray) {
-        entityManager.parseChests(chestsArray);
+        List<Chest> chests = new ArrayList<>(chestsArray.length());
+        for (int i = 0; i < chestsArray.length(); i++) {
+            chests.add(new Chest(chestsArray.getJSONObject(i)));
+        }
+        setChests(chests);
     }
 
     public void parseItems(JSONArray itemsArray) {
-        entityManager.parseItems(itemsArray);
+        List<Item> items = new ArrayList<>(itemsArray.length());
+        for (int i = 0; i < itemsArray.length(); i++) {
+            items.add(new Item(itemsArray.getJSONObject(i)));
+        }
+        setItems(items);
+    }
+
+    // Model-object overloads: the state takes ownership, callers must not mutate them afterwards
+    // (bombers are the exception: their fields are copied into the table)
+    public synchronized void setBombers(Collection<Bomber> list) {
+        bombers.clear();
+        for (Bomber bomber : list) bombers.put(bomber);
+        bombersReplaced();
+    }
+
+    private void bombersReplaced() {
+        refreshMySlot();
+        rebuildOccupancy();
+        rebuildTracker(); // Slots were renumbered, so old tracks no longer match
+        changed(DIRTY_BOMBERS);
+    }
+
+    // Mutators that can open or block cells or move items notify listeners after the monitor is released
+    public void setChests(Collection<Chest> chests) {
+        synchronized (this) {
+            applyChests(chests);
+        }
+        deliverChanges();
+    }
+
+    public void setItems(Collection<Item> items) {
+        synchronized (this) {
+            applyItems(items);
+        }
+        deliverChanges();
+    }
+
+    // Full chest list (join or map_update): apply only what differs from the current set.
+    // An unchanged list publishes nothing, so snapshots and lazy caches stay valid.
+    private void applyChests(Collection<Chest> incoming) {
+        if (!chestTilesSynced) {
+            entityManager.setChests(incoming);
+            syncChestTiles();
+            chestTilesSynced = gameMap.isLoaded();
+            changed(DIRTY_CHESTS);
+            return;
+        }
+        List<Chest> added = new ArrayList<>();
+        List<Chest> removed = new ArrayList<>();
+        entityManager.diffChests(incoming, added, removed);
+        if (added.isEmpty() && removed.isEmpty()) return;
+        for (Chest chest : removed) {
+            int cell = cellOf(chest.x, chest.y);
+            if (cell >= 0 && gameMap.isChest(cell)) setTile(cell, GameMap.TILE_EMPTY);
+        }
+        for (Chest chest : added) {
+            int cell = cellOf(chest.x, chest.y);
+            if (cell >= 0 && gameMap.getTile(cell) == GameMap.TILE_EMPTY) setTile(cell, GameMap.TILE_CHEST);
+        }
+        changed(DIRTY_CHESTS);
+    }
+
+    private void applyItems(Collection<Item> incoming) {
+        List<Item> added = new ArrayList<>();
+        List<Item> removed = new ArrayList<>();
+        entityManager.diffItems(incoming, added, removed);
+        if (added.isEmpty() && removed.isEmpty()) return;
+        for (Item item : removed) {
+            int cell = cellOf(item.x, item.y);
+            occupancy.removeItem(cell);
+            queueChange(CHANGE_ITEM_REMOVED, cell, item);
+        }
+        for (Item item : added) {
+            int cell = cellOf(item.x, item.y);
+            occupancy.addItem(item, cell);
+            queueChange(CHANGE_ITEM_ADDED, cell, item);
+        }
+        changed(DIRTY_ITEMS);
+    }
+
+    // Bomber updates write the table in place and return the bomber's slot
+    public synchronized int updateBomber(JSONObject bomberObj) {
+        return bomberUpdated(bombers.put(bomberObj));
+    }
+
+    // Fields are copied, so the caller keeps ownership of the Bomber (and may reuse it)
+    public synchronized int updateBomber(Bomber bomber) {
+        return bomberUpdated(bombers.put(bomber));
     }
 
-    public void updateBomber(JSONObject bomberObj) {
-        Bomber bomber = new Bomber(bomberObj);
-        entityManager.getBombers().put(bomber.uid, bomber);
+    private int bomberUpdated(int slot) {
+        if (mySlot == BomberTable.NO_SLOT && myUid != null) refreshMySlot(); // First sighting of our uid
+        occupancy.updateBomber(slot, cellOf(bombers.x(slot), bombers.y(slot)), bombers.isAlive(slot));
+        trackBomber(slot);
+        changed(DIRTY_BOMBERS);
+        return slot;
     }
 
-    public void addBomb(JSONObject bombObj) {
-        Bomb bomb = new Bomb(bombObj);
+    public synchronized void addBomb(JSONObject bombObj) {
+        addBomb(new Bomb(bombObj));
+    }
+
+    public synchronized void addBomb(Bomb bomb) {
+        recordRange(bomb);
         entityManager.getBombs().put(bomb.id, bomb);
+        indexBomb(bomb);
+        occupancy.addBomb(bomb.id, cellOf(bomb.x, bomb.y));
+        changed(DIRTY_BOMBS);
     }
 
-    public void removeBomb(int bombId) {
+    public synchronized void removeBomb(int bombId) {
         entityManager.getBombs().remove(bombId);
+        long start = System.nanoTime();
+        dangerIndex.removeBomb(bombId);
+        Metrics.DANGER_UPDATE.recordSince(start);
+        occupancy.removeBomb(bombId);
+        changed(DIRTY_BOMBS);
     }
 
-    public void removeBomber(String uid) {
-        entityManager.getBombers().remove(uid);
+    public synchronized void removeBomber(String uid) {
+        int slot = bombers.slotOf(uid);
+        if (slot != BomberTable.NO_SLOT) {
+            bombers.setPresent(slot, false); // The slot stays reserved for the uid
+            occupancy.removeBomber(slot);
+            tracker.remove(slot);
+        }
+        changed(DIRTY_BOMBERS);
     }
 
     public void removeChest(int x, int y) {
-        entityManager.getChests().remove(new Position(x, y));
+        synchronized (this) {
+            entityManager.getChests().remove(x, y);
+
+            // Destroyed chest opens its tile: walkable now, and blasts pass through
+            int cell = gameMap.isLoaded() ? gameMap.cellAt(x, y) : -1;
+            if (cell >= 0 && gameMap.isChest(cell)) {
+                setTile(cell, GameMap.TILE_EMPTY);
+            }
+            changed(DIRTY_CHESTS);
+        }
+        deliverChanges();
+    }
+
+    // Single entry point for tile changes so every derived index stays in sync
+    private void setTile(int cell, byte tile) {
+        long start = System.nanoTime();
+        gameMap.setTile(cell, tile); // Also patches the blast ray table
+        dangerIndex.onTileChanged(cell);
+        Metrics.DANGER_UPDATE.recordSince(start);
+        dirty |= DIRTY_TILES;
+        queueChange(tile == GameMap.TILE_EMPTY ? CHANGE_OPENED : CHANGE_BLOCKED, cell, null);
+    }
+
+    // Reconcile chest tiles in the grid with the chest list from map_update - O(map + chests)
+    private void syncChestTiles() {
+        if (!gameMap.isLoaded()) return;
+        boolean[] hasChest = new boolean[gameMap.getCellCount()];
+        CoordMap<Chest> chests = entityManager.getChests();
+        for (int slot = 0; slot < chests.capacity(); slot++) {
+            Chest chest = chests.valueAt(slot);
+            if (chest == null) continue;
+            int cell = gameMap.cellAt(chest.x, chest.y);
+            if (cell >= 0) hasChest[cell] = true;
+        }
+        for (int cell = 0; cell < hasChest.length; cell++) {
+            if (gameMap.isChest(cell) && !hasChest[cell]) {
+                setTile(cell, GameMap.TILE_EMPTY);
+            } else if (hasChest[cell] && gameMap.getTile(cell) == GameMap.TILE_EMPTY) {
+                setTile(cell, GameMap.TILE_CHEST);
+            }
+        }
     }
 
     public void addItem(JSONObject itemObj) {
-        Item item = new Item(itemObj);
-        entityManager.getItems().put(new Position(item.x, item.y), item);
+        addItem(new Item(itemObj));
+    }
+
+    public void addItem(Item item) {
+        synchronized (this) {
+            entityManager.getItems().put(item.x, item.y, item);
+            int cell = cellOf(item.x, item.y);
+            occupancy.addItem(item, cell);
+            queueChange(CHANGE_ITEM_ADDED, cell, item);
+            changed(DIRTY_ITEMS);
+        }
+        deliverChanges();
     }
 
     public void removeItem(int x, int y) {
-        entityManager.getItems().remove(new Position(x, y));
+        synchronized (this) {
+            Item removed = entityManager.getItems().remove(x, y);
+            int cell = cellOf(x, y);
+            occupancy.removeItem(cell);
+            if (removed != null) queueChange(CHANGE_ITEM_REMOVED, cell, removed);
+            changed(DIRTY_ITEMS);
+        }
+        deliverChanges();
+    }
+
+    // --- Change notifications ---
+    public void addChangeListener(StateChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(StateChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void queueChange(int kind, int cell, Item item) {
+        if (!listeners.isEmpty() && cell >= 0) pendingChanges.add(new Change(kind, cell, item));
+    }
+
+    // Called by the mutators after they release the monitor, so a listener never runs under the
+    // lock every writer takes; the batch is taken under the lock, so batches stay whole and ordered
+    private void deliverChanges() {
+        Change[] batch;
+        synchronized (this) {
+            if (pendingChanges.isEmpty()) return;
+            batch = pendingChanges.toArray(new Change[0]);
+            pendingChanges.clear();
+        }
+        for (Change change : batch) {
+            for (StateChangeListener listener : listeners) {
+                try {
+                    switch (change.kind) {
+                        case CHANGE_OPENED: listener.onCellOpened(change.cell); break;
+                        case CHANGE_BLOCKED: listener.onCellBlocked(change.cell); break;
+                        case CHANGE_ITEM_ADDED: listener.onItemAppeared(change.cell, change.item); break;
+                        case CHANGE_ITEM_REMOVED: listener.onItemRemoved(change.cell, change.item); break;
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace(); // A failing subscriber must not break the writer
+                }
+            }
+        }
     }
 
+    // Live map, owned by the writer side. Decision code should read snapshot().getGameMap().
     public GameMap getGameMap() {
         return gameMap;
     }
-    public int[] coordToCell(double x, double y) {
-        return new int[]{(int)(y / getGameMap().getTileSize()), (int)(x / getGameMap().getTileSize())};
+    // Cell id containing a pixel coordinate, or -1 when off the map
+    public int cellAt(double x, double y) {
+        return gameMap.cellAt(x, y);
+    }
+
+    private int cellOf(double x, double y) {
+        return gameMap.isLoaded() ? gameMap.cellAt(x, y) : -1;
+    }
+
+    // --- Snapshots ---
+    // Current state; the decision thread pins one per tick and reads only from it. Built here,
+    // on demand, when a mutation happened since the last one - O(1) when nothing changed.
+    public GameSnapshot snapshot() {
+        if (!stale) return current;
+        synchronized (this) {
+            if (stale) publish();
+            return current;
+        }
+    }
+
+    // Mutators only record what changed; the views (and the copy-on-write copies they force on
+    // the next write) are paid once per snapshot, not once per event
+    private void changed(int parts) {
+        dirty |= parts;
+        stale = true;
+    }
+
+    // Build the next version, reusing every part of the previous snapshot that did not change
+    private void publish() {
+        GameSnapshot prev = current;
+        int d = prev == null ? DIRTY_ALL : dirty;
+        dirty = 0;
+
+        boolean tilesChanged = (d & DIRTY_TILES) != 0;
+        boolean bombsChanged = (d & DIRTY_BOMBS) != 0;
+        boolean bombersChanged = (d & DIRTY_BOMBERS) != 0;
+        boolean itemsChanged = (d & DIRTY_ITEMS) != 0;
+
+        GameMap map = tilesChanged ? gameMap.snapshot() : prev.getGameMap();
+        DangerIndex danger = tilesChanged || bombsChanged ? dangerIndex.snapshot() : prev.danger();
+        EnemyTracker motion = bombersChanged || prev == null ? tracker.snapshot() : prev.getEnemyTracker();
+        OccupancyIndex occ = bombersChanged || bombsChanged || itemsChanged ? occupancy.snapshot() : prev.getOccupancy();
+        BomberTable table = bombersChanged ? bombers.snapshot() : prev.getBomberTable();
+        Map<Integer, Bomb> bombs = bombsChanged ? Map.copyOf(entityManager.getBombs()) : prev.getBombs();
+        CoordMap<Chest> chests = (d & DIRTY_CHESTS) != 0 ? entityManager.getChests().snapshot() : prev.getChests();
+        CoordMap<Item> items = itemsChanged ? entityManager.getItems().snapshot() : prev.getItems();
+        // Bombs carry their own range, so bomber changes never touch the timeline
+        boolean timelineStale = tilesChanged || bombsChanged;
+        GameSnapshot.LazyTimeline timeline = timelineStale ? new GameSnapshot.LazyTimeline() : prev.timelineHolder();
+
+        current = new GameSnapshot(prev == null ? 1 : prev.getEpoch() + 1, myUid, entityManager.isGameStarted(),
+                map, danger, occ, motion, table, mySlot, bombs, chests, items, timeline);
+        stale = false; // After the swap, so a lock-free reader that sees it clear gets the new snapshot
     }
 
-    public int[] cellToCoord(int row, int col) {
-        return new int[]{col * getGameMap().getTileSize() + getGameMap().getTileSize() / 2, row * getGameMap().getTileSize() + getGameMap().getTileSize() / 2};
+    // A bomb's range is fixed when it is placed: the owner's range at that moment. Later
+    // pickups only affect the owner's next bombs.
+    private void recordRange(Bomb bomb) {
+        if (bomb.range < 0) bomb.range = bombers.rangeOf(bomb.uid);
     }
 
-    // --- Helpers used by BombermanBot ---
-    public boolean[][] calculateDangerZones() {
-        String[][] map = gameMap.getMap();
-        if (map == null || map.length == 0) return null;
-        int rows = map.length;
-        int cols = map[0].length;
-        boolean[][] combined = new boolean[rows][cols];
+    private void indexBomb(Bomb bomb) {
+        if (!gameMap.isLoaded()) return;
+        long start = System.nanoTime();
+        dangerIndex.addBomb(bomb.id, gameMap.cellAt(bomb.x, bomb.y), bomb.range);
+        Metrics.DANGER_UPDATE.recordSince(start);
+    }
 
+    private void rebuildDangerIndex() {
+        if (!gameMap.isLoaded()) return;
+        dangerIndex.reset(gameMap);
         for (Bomb bomb : entityManager.getBombs().values()) {
-            int[] cell = coordToCell(bomb.x, bomb.y);
-            int bombRow = cell[0];
-            int bombCol = cell[1];
-
-            Bomber owner = entityManager.getBombers().get(bomb.uid);
-            int range = owner != null ? owner.getExplosionRange() : 2;
-
-            boolean[][] dz = dangerZoneCalculator.buildBombDangerZone(map, bombRow, bombCol, range);
-            if (dz == null) continue;
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < cols; c++) {
-                    combined[r][c] = combined[r][c] || dz[r][c];
-                }
-            }
+            indexBomb(bomb);
+        }
+    }
+
+    private void rebuildOccupancy() {
+        if (!gameMap.isLoaded()) return;
+        occupancy.reset(gameMap.getCellCount());
+        occupancy.setMySlot(mySlot);
+        for (int slot = 0; slot < bombers.size(); slot++) {
+            occupancy.updateBomber(slot, cellOf(bombers.x(slot), bombers.y(slot)), bombers.isAlive(slot));
+        }
+        for (Bomb bomb : entityManager.getBombs().values()) {
+            occupancy.addBomb(bomb.id, cellOf(bomb.x, bomb.y));
+        }
+        CoordMap<Item> items = entityManager.getItems();
+        for (int slot = 0; slot < items.capacity(); slot++) {
+            Item item = items.valueAt(slot);
+            if (item != null) occupancy.addItem(item, cellOf(item.x, item.y));
         }
+    }
 
-        return combined;
+    private void trackBomber(int slot) {
+        tracker.update(gameMap, slot, bombers.x(slot), bombers.y(slot), bombers.orient(slot),
+                bombers.isAlive(slot) && bombers.isPresent(slot), clock.getAsLong());
     }
 
-    public boolean isInDangerZone(int x, int y, boolean[][] dangerZones) {
-        if (dangerZones == null) return false;
-        int[] cell = coordToCell(x, y);
-        int row = cell[0];
-        int col = cell[1];
-        if (row < 0 || row >= dangerZones.length || col < 0 || col >= dangerZones[0].length) return false;
-        return dangerZones[row][col];
+    private void rebuildTracker() {
+        if (!gameMap.isLoaded()) return;
+        tracker.reset(gameMap.getCellCount());
+        tracker.setMySlot(mySlot);
+        for (int slot = 0; slot < bombers.size(); slot++) trackBomber(slot);
     }
 
     public boolean isPositionWalkable(int x, int y) {
@@ -149,7 +510,8 @@ public class GameState {
         return entityManager.isGameStarted();
     }
 
-    public void setGameStarted(boolean started) {
+    public synchronized void setGameStarted(boolean started) {
         entityManager.setGameStarted(started);
+        changed(0);
     }
 }
@@ -0,0 +1,49 @@
+package com.bomberman.engine;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+// Bounded LRU memo keyed by a 64-bit state hash (see Zobrist). One per decision owner, not
+// thread-safe. Null results are remembered too, so "nothing found" is also a hit.
+public final class MemoCache<V> {
+    private static final Object NULL = new Object();
+
+    private final Map<Long, Object> entries;
+    private long hits;
+    private long misses;
+
+    public MemoCache(int capacity) {
+        entries = new LinkedHashMap<Long, Object>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // Cached result for the key, or compute and remember it - O(1) on a hit
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, Supplier<V> compute) {
+        Object value = entries.get(key);
+        if (value != null) {
+            hits++;
+            return value == NULL ? null : (V) value;
+        }
+        misses++;
+        V computed = compute.get();
+        entries.put(key, computed != null ? computed : NULL);
+        return computed;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+}
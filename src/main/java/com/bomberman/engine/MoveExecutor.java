@@ -0,0 +1,255 @@
+package com.bomberman.engine;
+
+import com.bomberman.model.*;
+
+import java.util.*;
+
+// Runs a planned action sequence (MOVE, PLACE_BOMB, MOVE_AND_BOMB) against the live game.
+// Moves are pipelined: the next one is sent as soon as the bomber crosses into the cell it
+// starts from, so it is queued before the bomber reaches that cell's center and the walk
+// never stops for a decision. A MOVE_AND_BOMB fires its bomb on arrival at the target center
+// together with the first retreat move; the plan's own retreat is kept when it still holds. Every tick re-validates the path against the latest
+// snapshot (position, walls, bombs, blast timing) and aborts instead of walking on blindly.
+public class MoveExecutor {
+    public enum Status {
+        IDLE,
+        RUNNING,
+        DONE,
+        ABORTED
+    }
+
+    // Fresh retreat from a bomb dropped on the cell at now, searched right before the bomb goes
+    // down when the plan's own retreat no longer holds
+    public interface RetreatFinder {
+        List<String> retreatFrom(GameSnapshot state, int cell, long now);
+    }
+
+    private final RetreatFinder retreatFinder;
+
+    // Path cells: move k walks cells[k] -> cells[k + 1] in direction dirs[k]
+    private int[] cells = new int[16];
+    private int[] dirs = new int[16];
+    private int moves;
+    private int bombAt = -1;   // Path index the bomb is placed on, -1 for a plain walk
+    private boolean bombPlaced;
+    private int issued;        // Moves sent so far
+    private int pos;           // Path index the bomber is on
+    private int lastX, lastY;
+    private long lastProgressAt;
+    private Status status = Status.IDLE;
+    private String abortReason;
+
+    public MoveExecutor(RetreatFinder retreatFinder) {
+        this.retreatFinder = retreatFinder;
+    }
+
+    // Start a plan from the bomber's current cell; false (and IDLE) when it does not fit the map
+    public boolean load(List<Action> plan, GameSnapshot state, long now) {
+        status = Status.IDLE;
+        Bomber me = state.getMyBomber();
+        GameMap map = state.getGameMap();
+        if (me == null || !map.isLoaded()) return false;
+        int cell = map.cellAt(me.getX(), me.getY());
+        if (cell < 0) return false;
+
+        moves = 0;
+        bombAt = -1;
+        cells[0] = cell;
+        for (Action action : plan) {
+            if (action.type == ActionType.PLACE_BOMB || action.type == ActionType.MOVE_AND_BOMB) {
+                if (bombAt >= 0) return false; // One bomb per plan
+                if (action.type == ActionType.MOVE_AND_BOMB && !append(map, action.direction)) return false;
+                bombAt = moves;
+            } else if (!append(map, action.direction)) {
+                return false;
+            }
+        }
+
+        bombPlaced = false;
+        issued = 0;
+        pos = 0;
+        lastX = me.getX();
+        lastY = me.getY();
+        lastProgressAt = now;
+        abortReason = null;
+        status = Status.RUNNING;
+        return true;
+    }
+
+    private boolean append(GameMap map, String direction) {
+        int dir = direction != null ? Arrays.asList(GameMap.DIR_NAMES).indexOf(direction) : -1;
+        int next = dir >= 0 ? map.neighbor(cells[moves], dir) : -1;
+        if (next < 0) return false;
+        if (moves + 1 == cells.length) {
+            cells = Arrays.copyOf(cells, cells.length * 2);
+            dirs = Arrays.copyOf(dirs, dirs.length * 2);
+        }
+        dirs[moves] = dir;
+        cells[++moves] = next;
+        return true;
+    }
+
+    public void cancel() {
+        status = Status.IDLE;
+    }
+
+    // --- Execution ---
+    // Validate, then send whatever the plan allows now (at most a bomb and one move) - O(path)
+    public Status tick(GameSnapshot state, CommandSink sink, long now) {
+        if (status != Status.RUNNING) return status;
+        Bomber me = state.getMyBomber();
+        GameMap map = state.getGameMap();
+        if (me == null || !me.isAlive()) return abort("bomber gone");
+
+        // The bomber may only be on its current path cell or on one it was already sent to
+        int cell = map.cellAt(me.getX(), me.getY());
+        int at = -1;
+        for (int k = pos; k <= issued; k++) {
+            if (cells[k] == cell) {
+                at = k;
+                break;
+            }
+        }
+        if (at < 0) return abort("off path at cell " + cell);
+        if (at != pos || me.getX() != lastX || me.getY() != lastY) {
+            pos = at;
+            lastX = me.getX();
+            lastY = me.getY();
+            lastProgressAt = now;
+        } else if (now - lastProgressAt > stallMs(map, me)) {
+            return abort("no progress at cell " + cell); // Move refused or blocked by a bomber
+        }
+
+        OccupancyIndex occupancy = state.getOccupancy();
+        if (pos == bombAt && !bombPlaced) {
+            if (!atCenter(map, me, cell)) return status; // Fused bomb waits for the center
+            if (me.getBombCount() <= 0 || occupancy.hasBomb(cell)) return abort("cannot bomb cell " + cell);
+            if (!plannedRetreatHolds(state, map, occupancy, me, now)) {
+                List<String> retreat = retreatFinder.retreatFrom(state, cell, now);
+                if (retreat == null || retreat.isEmpty()) return abort("no retreat from cell " + cell);
+                moves = bombAt;
+                for (String direction : retreat) {
+                    if (!append(map, direction)) return abort("retreat leaves the map");
+                }
+            }
+            sink.placeBomb();
+            bombPlaced = true;
+        }
+
+        if (bombPlaced && !retreatClear(state, map, me, now)) return abort("retreat blocked by a blast");
+
+        if (pos == moves) {
+            if (atCenter(map, me, cell)) status = Status.DONE;
+            return status;
+        }
+
+        // Nothing past the bomb until it is down; one move ahead of the bomber at most
+        int limit = bombAt >= 0 && !bombPlaced ? bombAt : moves;
+        if (issued <= pos && issued < limit) {
+            int next = cells[issued + 1];
+            if (!map.isWalkable(next) || occupancy.hasBomb(next)) return abort("cell " + next + " blocked");
+            if (!enterable(state, map, me, pos + 1, now)) return abort("cell " + next + " explodes on the way");
+            sink.move(GameMap.DIR_NAMES[dirs[issued]]);
+            issued++;
+        }
+        return status;
+    }
+
+    // The retreat planned with the target (validated then) still leads over open cells out of
+    // this bomb's blast to a cell outside the danger index, and nothing explodes on the way
+    private boolean plannedRetreatHolds(GameSnapshot state, GameMap map, OccupancyIndex occupancy, Bomber me, long now) {
+        if (moves == bombAt) return false;
+        for (int k = bombAt + 1; k <= moves; k++) {
+            if (!map.isWalkable(cells[k]) || occupancy.hasBomb(cells[k])) return false;
+        }
+        int end = cells[moves];
+        if (state.isDangerCell(end) || inBlast(map, cells[bombAt], me.getExplosionRange(), end)) return false;
+        return retreatClear(state, map, me, now);
+    }
+
+    private static boolean inBlast(GameMap map, int bombCell, int range, int cell) {
+        if (cell == bombCell) return true;
+        BlastRayTable rays = map.getRays();
+        for (int dir = 0; dir < 4; dir++) {
+            int reach = rays.reach(bombCell, dir, range);
+            for (int i = 1; i <= reach; i++) {
+                if (rays.cellAlong(bombCell, dir, i) == cell) return true;
+            }
+        }
+        return false;
+    }
+
+    // Every cell still ahead can be crossed before it explodes, and the last one never does
+    private boolean retreatClear(GameSnapshot state, GameMap map, Bomber me, long now) {
+        if (state.getDetonationTimeline().explosionTime(cells[moves]) != DetonationTimeline.NEVER) return false;
+        for (int k = pos + 1; k < moves; k++) {
+            if (!enterable(state, map, me, k, now)) return false;
+        }
+        return true;
+    }
+
+    // Same rule as the escape search: out of the cell (half a tile on) before it explodes
+    private boolean enterable(GameSnapshot state, GameMap map, Bomber me, int k, long now) {
+        long at = state.getDetonationTimeline().explosionTime(cells[k]);
+        if (at == DetonationTimeline.NEVER) return true;
+        int next = cells[pos + 1];
+        int px = Math.abs(me.getX() - map.centerX(next)) + Math.abs(me.getY() - map.centerY(next))
+                + (k - pos - 1) * map.getTileSize() + map.getTileSize() / 2;
+        return now + (long) Math.ceil(px * msPerPixel(me)) + BombingStrategy.SAFETY_MARGIN_MS < at;
+    }
+
+    // --- Timing ---
+    // When the plan next needs a decision: the bomb cell's center, or the next cell boundary
+    public long nextWakeMs(GameSnapshot state) {
+        Bomber me = state.getMyBomber();
+        GameMap map = state.getGameMap();
+        if (status != Status.RUNNING || me == null) return DecisionScheduler.msToNextTile(me, map.getTileSize());
+        int px;
+        int c = cells[pos];
+        if ((pos == bombAt && !bombPlaced) || pos == moves) {
+            px = Math.abs(me.getX() - map.centerX(c)) + Math.abs(me.getY() - map.centerY(c));
+        } else {
+            int n = cells[pos + 1];
+            px = Math.abs(2 * me.getX() - map.centerX(c) - map.centerX(n)) / 2
+                    + Math.abs(2 * me.getY() - map.centerY(c) - map.centerY(n)) / 2 + 1; // Just past the edge
+        }
+        return (long) Math.ceil(px * msPerPixel(me));
+    }
+
+    private static double msPerPixel(Bomber me) {
+        return DecisionScheduler.SERVER_FRAME_MS / Math.max(0.1, me.getSpeed());
+    }
+
+    // Twice a step's walking time plus a tick: a move this late was not taken
+    private static long stallMs(GameMap map, Bomber me) {
+        return (long) (2 * map.getTileSize() * msPerPixel(me)) + DecisionScheduler.MAX_DELAY_MS;
+    }
+
+    private static boolean atCenter(GameMap map, Bomber me, int cell) {
+        return Math.abs(me.getX() - map.centerX(cell)) + Math.abs(me.getY() - map.centerY(cell)) < Math.max(1.0, me.getSpeed());
+    }
+
+    private Status abort(String reason) {
+        abortReason = reason;
+        status = Status.ABORTED;
+        return status;
+    }
+
+    // --- Queries ---
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    // The bomb is down and the plan is walking away from it
+    public boolean isRetreating() {
+        return status == Status.RUNNING && bombPlaced;
+    }
+
+    public String getAbortReason() {
+        return abortReason;
+    }
+}
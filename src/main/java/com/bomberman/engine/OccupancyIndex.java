@@ -0,0 +1,198 @@
+package com.bomberman.engine;
+
+import com.bomberman.model.Item;
+import com.bomberman.model.Zobrist;
+
+import java.util.*;
+
+// Cell-indexed occupancy: which bombers, bombs and items sit on each cell.
+// Maintained by the GameState mutators; "who is on this cell" queries are O(1).
+public class OccupancyIndex {
+    private int[] bomberCount = new int[0];
+    private int[] bombIdAt = new int[0];  // -1 when the cell holds no bomb
+    private Item[] itemAt = new Item[0];
+
+    private int[] bomberCells = new int[0]; // Cell per BomberTable slot, -1 when dead or off the map
+    private final Map<Integer, Integer> bombCells; // Bomb id -> cell, writer side only: null in views
+    private int mySlot = BomberTable.NO_SLOT;
+    private volatile int myCell = -1;
+    private long bomberHash; // Zobrist hash of (slot, cell) over live bombers on the map
+
+    // Per-array copy-on-write flags: set when a snapshot references the array
+    private boolean bombersShared;
+    private boolean bombsShared;
+    private boolean itemsShared;
+
+    public OccupancyIndex() {
+        bombCells = new HashMap<>();
+    }
+
+    // Read-only view sharing the live arrays
+    private OccupancyIndex(OccupancyIndex source) {
+        bomberCount = source.bomberCount;
+        bombIdAt = source.bombIdAt;
+        itemAt = source.itemAt;
+        bomberCells = source.bomberCells;
+        bombCells = null; // Only removeBomb reads it, and views are never written
+        mySlot = source.mySlot;
+        myCell = source.myCell;
+        bomberHash = source.bomberHash;
+    }
+
+    // Freeze the current occupancy into a view; each live array is copied on its next write only
+    public synchronized OccupancyIndex snapshot() {
+        bombersShared = true;
+        bombsShared = true;
+        itemsShared = true;
+        return new OccupancyIndex(this);
+    }
+
+    // Resize for a (re)parsed map and drop everything; callers re-add entities
+    public synchronized void reset(int cellCount) {
+        bomberCount = new int[cellCount];
+        bombIdAt = new int[cellCount];
+        Arrays.fill(bombIdAt, -1);
+        itemAt = new Item[cellCount];
+        bombersShared = false;
+        bombsShared = false;
+        itemsShared = false;
+        bomberCells = new int[0];
+        bombCells.clear();
+        myCell = -1;
+        bomberHash = 0;
+    }
+
+    public synchronized void setMySlot(int slot) {
+        this.mySlot = slot;
+        myCell = slot >= 0 && slot < bomberCells.length ? bomberCells[slot] : -1;
+    }
+
+    // --- Bombers ---
+    // Move (or add) a bomber by BomberTable slot; dead or off-map bombers are removed - O(1)
+    public synchronized void updateBomber(int slot, int cell, boolean alive) {
+        int previous = slot < bomberCells.length ? bomberCells[slot] : -1;
+        int target = alive && inRange(cell) ? cell : -1;
+        if (previous == target) return;
+        if (bombersShared) {
+            bomberCount = bomberCount.clone();
+            bomberCells = bomberCells.clone();
+            bombersShared = false;
+        }
+        if (slot >= bomberCells.length) {
+            int[] cells = Arrays.copyOf(bomberCells, slot + 1);
+            Arrays.fill(cells, bomberCells.length, cells.length, -1);
+            bomberCells = cells;
+        }
+
+        if (previous >= 0) {
+            bomberCount[previous]--;
+            bomberHash ^= Zobrist.key(Zobrist.BOMBER, slot, previous);
+        }
+        if (target >= 0) {
+            bomberCount[target]++;
+            bomberHash ^= Zobrist.key(Zobrist.BOMBER, slot, target);
+        }
+        bomberCells[slot] = target;
+        if (slot == mySlot) {
+            myCell = target;
+        }
+    }
+
+    public synchronized void removeBomber(int slot) {
+        if (slot >= 0) updateBomber(slot, -1, false);
+    }
+
+    // --- Bombs ---
+    public synchronized void addBomb(int bombId, int cell) {
+        removeBomb(bombId);
+        if (!inRange(cell)) return;
+        if (bombsShared) {
+            bombIdAt = bombIdAt.clone();
+            bombsShared = false;
+        }
+        bombIdAt[cell] = bombId;
+        bombCells.put(bombId, cell);
+    }
+
+    public synchronized void removeBomb(int bombId) {
+        Integer cell = bombCells.remove(bombId);
+        if (cell != null && bombIdAt[cell] == bombId) {
+            if (bombsShared) {
+                bombIdAt = bombIdAt.clone();
+                bombsShared = false;
+            }
+            bombIdAt[cell] = -1;
+        }
+    }
+
+    // --- Items ---
+    public synchronized void addItem(Item item, int cell) {
+        if (inRange(cell)) writableItems()[cell] = item;
+    }
+
+    public synchronized void removeItem(int cell) {
+        if (inRange(cell) && itemAt[cell] != null) writableItems()[cell] = null;
+    }
+
+    private Item[] writableItems() {
+        if (itemsShared) {
+            itemAt = itemAt.clone();
+            itemsShared = false;
+        }
+        return itemAt;
+    }
+
+    private boolean inRange(int cell) {
+        return cell >= 0 && cell < bomberCount.length;
+    }
+
+    // --- Queries (lock-free) ---
+    public boolean hasBomber(int cell) {
+        int[] counts = bomberCount;
+        return cell >= 0 && cell < counts.length && counts[cell] > 0;
+    }
+
+    // Any live bomber other than us on this cell
+    public boolean hasEnemy(int cell) {
+        int[] counts = bomberCount;
+        if (cell < 0 || cell >= counts.length) return false;
+        return counts[cell] - (cell == myCell ? 1 : 0) > 0;
+    }
+
+    public int bomberCount(int cell) {
+        int[] counts = bomberCount;
+        return cell >= 0 && cell < counts.length ? counts[cell] : 0;
+    }
+
+    // Slot of a live bomber on this cell, NO_SLOT if empty - O(bombers) only when occupied
+    public int bomberAt(int cell) {
+        if (!hasBomber(cell)) return BomberTable.NO_SLOT;
+        int[] cells = bomberCells;
+        for (int slot = 0; slot < cells.length; slot++) {
+            if (cells[slot] == cell) return slot;
+        }
+        return BomberTable.NO_SLOT;
+    }
+
+    public boolean hasBomb(int cell) {
+        return bombIdAt(cell) >= 0;
+    }
+
+    public int bombIdAt(int cell) {
+        int[] ids = bombIdAt;
+        return cell >= 0 && cell < ids.length ? ids[cell] : -1;
+    }
+
+    public Item itemAt(int cell) {
+        Item[] items = itemAt;
+        return cell >= 0 && cell < items.length ? items[cell] : null;
+    }
+
+    public long getBomberHash() {
+        return bomberHash;
+    }
+
+    public int getMyCell() {
+        return myCell;
+    }
+}
@@ -0,0 +1,254 @@
+package com.bomberman.engine;
+
+import com.bomberman.model.GameMap;
+
+import java.util.*;
+
+// Reusable grid search kernel shared by BFS and the earliest-arrival search.
+// All buffers are preallocated per map size; visited/parent state is generation-stamped,
+// so starting a new search is O(1) instead of clearing arrays.
+public class SearchKernel {
+
+    // Goal test for BFS, evaluated on cells as they are dequeued
+    public interface CellPredicate {
+        boolean test(int cell, int dist);
+    }
+
+    private int cellCount = -1;
+    private int generation;
+    private int[] visitStamp = new int[0];
+    private int[] blastStamp = new int[0];
+    private int[] closedStamp = new int[0];
+    private int[] parent = new int[0];
+    private byte[] parentDir = new byte[0];
+    private int[] dist = new int[0];
+    private int[] queue = new int[0];
+    private int[] rayScratch = new int[0];
+
+    // Binary min-heap of (key, cell) pairs for earliest arrival; stale duplicates are skipped on pop
+    private int[] heapKeys = new int[0];
+    private int[] heapCells = new int[0];
+    private int heapSize;
+
+    private void ensureCapacity(GameMap map) {
+        int n = map.getCellCount();
+        if (n == cellCount) return;
+        cellCount = n;
+        visitStamp = new int[n];
+        blastStamp = new int[n];
+        closedStamp = new int[n];
+        parent = new int[n];
+        parentDir = new byte[n];
+        dist = new int[n];
+        queue = new int[n];
+        heapKeys = new int[4 * n + 1];
+        heapCells = new int[4 * n + 1];
+        rayScratch = new int[Math.max(map.getMapWidth(), map.getMapHeight())];
+        generation = 0;
+    }
+
+    private void nextGeneration(GameMap map) {
+        ensureCapacity(map);
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(visitStamp, 0);
+            Arrays.fill(blastStamp, 0);
+            Arrays.fill(closedStamp, 0);
+            generation = 1;
+        }
+    }
+
+    // --- BFS ---
+    // Breadth-first search from start over walkable cells up to maxDist steps.
+    // Returns the first dequeued cell accepted by goal, or -1. Distances/parents stay readable until the next search.
+    public int bfs(GameMap map, int start, int maxDist, CellPredicate goal) {
+        nextGeneration(map);
+        return bfsFrom(map, start, maxDist, goal);
+    }
+
+    private int bfsFrom(GameMap map, int start, int maxDist, CellPredicate goal) {
+        int head = 0;
+        int tail = 0;
+        int gen = generation;
+        queue[tail++] = start;
+        visitStamp[start] = gen;
+        parent[start] = -1;
+        dist[start] = 0;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int d = dist[cell];
+            if (goal.test(cell, d)) return cell;
+            if (d >= maxDist) continue;
+
+            for (int dir = 0; dir < 4; dir++) {
+                int next = map.neighbor(cell, dir);
+                if (next < 0 || visitStamp[next] == gen) continue;
+                if (!map.isWalkable(next)) continue; // Can't walk through walls/chests
+                visitStamp[next] = gen;
+                parent[next] = cell;
+                parentDir[next] = (byte) dir;
+                dist[next] = d + 1;
+                queue[tail++] = next;
+            }
+        }
+        return -1;
+    }
+
+    // Stamp the cross-shaped blast of a hypothetical bomb for this generation - O(range)
+    private void markBlast(GameMap map, int bombCell, int range) {
+        if (rayScratch.length < range) rayScratch = new int[range];
+        int gen = generation;
+        blastStamp[bombCell] = gen;
+        for (int dir = 0; dir < 4; dir++) {
+            int n = map.getRays().walkRay(bombCell, dir, range, rayScratch);
+            for (int i = 0; i < n; i++) {
+                blastStamp[rayScratch[i]] = gen;
+            }
+        }
+    }
+
+    public boolean inBlast(int cell) {
+        return blastStamp[cell] == generation;
+    }
+
+    // --- Earliest arrival ---
+    // Millisecond arrival time at every cell reachable within maxMs from an exact pixel position,
+    // moving msPerPx per pixel plus turnMs per tile (command turnaround). The first leg is the
+    // Manhattan pixel distance to the current or an adjacent tile center, so the sub-tile offset
+    // counts; every later step costs one tile. Dijkstra over those times: the start cell and its
+    // neighbors are seeded, then costs are uniform. enter (null for any) may refuse a cell at its
+    // arrival time. Returns the earliest-reached cell accepted by goal, or -1; pathTo() then
+    // gives the fastest path from the start cell.
+    public int earliestArrival(GameMap map, double x, double y, double msPerPx, int turnMs, int maxMs,
+                               CellPredicate enter, CellPredicate goal) {
+        nextGeneration(map);
+        return arrivalFrom(map, x, y, msPerPx, turnMs, maxMs, enter, goal);
+    }
+
+    // Same as earliestArrival, with a hypothetical bomb at bombCell marked as blast cells (see inBlast)
+    public int earliestArrivalAwayFromBlast(GameMap map, int bombCell, int range, double x, double y,
+                                            double msPerPx, int turnMs, int maxMs,
+                                            CellPredicate enter, CellPredicate goal) {
+        nextGeneration(map);
+        markBlast(map, bombCell, range);
+        return arrivalFrom(map, x, y, msPerPx, turnMs, maxMs, enter, goal);
+    }
+
+    private int arrivalFrom(GameMap map, double x, double y, double msPerPx, int turnMs, int maxMs,
+                            CellPredicate enter, CellPredicate goal) {
+        int start = map.cellAt(x, y);
+        if (start < 0) return -1;
+        int gen = generation;
+        int stepMs = (int) Math.ceil(map.getTileSize() * msPerPx) + turnMs;
+        heapSize = 0;
+
+        // Seeds: our own tile center and the four adjacent ones, straight from the pixel position
+        seed(start, -1, -1, legMs(map, start, x, y, msPerPx), maxMs, enter);
+        for (int dir = 0; dir < 4; dir++) {
+            int next = map.neighbor(start, dir);
+            if (next < 0 || !map.isWalkable(next)) continue;
+            seed(next, start, dir, legMs(map, next, x, y, msPerPx) + turnMs, maxMs, enter);
+        }
+
+        while (heapSize > 0) {
+            int cell = heapCells[0];
+            pop();
+            if (closedStamp[cell] == gen) continue; // Stale duplicate
+            closedStamp[cell] = gen;
+            int t = dist[cell];
+            if (goal.test(cell, t)) return cell;
+
+            int arrive = t + stepMs;
+            if (arrive > maxMs) continue;
+            for (int dir = 0; dir < 4; dir++) {
+                int next = map.neighbor(cell, dir);
+                if (next < 0 || closedStamp[next] == gen) continue;
+                if (!map.isWalkable(next)) continue;
+                if (visitStamp[next] == gen && dist[next] <= arrive) continue;
+                if (enter != null && !enter.test(next, arrive)) continue;
+                visitStamp[next] = gen;
+                dist[next] = arrive;
+                parent[next] = cell;
+                parentDir[next] = (byte) dir;
+                push(arrive, next);
+            }
+        }
+        return -1;
+    }
+
+    private void seed(int cell, int from, int dir, int ms, int maxMs, CellPredicate enter) {
+        if (ms > maxMs || (enter != null && from >= 0 && !enter.test(cell, ms))) return;
+        if (visitStamp[cell] == generation && dist[cell] <= ms) return;
+        visitStamp[cell] = generation;
+        dist[cell] = ms;
+        parent[cell] = from;
+        parentDir[cell] = (byte) Math.max(0, dir);
+        push(ms, cell);
+    }
+
+    // Time to walk from a pixel position to a tile center
+    private static int legMs(GameMap map, int cell, double x, double y, double msPerPx) {
+        return (int) Math.ceil((Math.abs(map.centerX(cell) - x) + Math.abs(map.centerY(cell) - y)) * msPerPx);
+    }
+
+    private void push(int key, int cell) {
+        if (heapSize == heapKeys.length) {
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+            heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (heapKeys[p] <= key) break;
+            heapKeys[i] = heapKeys[p];
+            heapCells[i] = heapCells[p];
+            i = p;
+        }
+        heapKeys[i] = key;
+        heapCells[i] = cell;
+    }
+
+    private void pop() {
+        int last = --heapSize;
+        if (last == 0) return;
+        int key = heapKeys[last];
+        int cell = heapCells[last];
+        int i = 0;
+        int half = last >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < last && heapKeys[child + 1] < heapKeys[child]) child++;
+            if (key <= heapKeys[child]) break;
+            heapKeys[i] = heapKeys[child];
+            heapCells[i] = heapCells[child];
+            i = child;
+        }
+        heapKeys[i] = key;
+        heapCells[i] = cell;
+    }
+
+    // --- Results of the last search ---
+    public boolean reached(int cell) {
+        return visitStamp[cell] == generation;
+    }
+
+    // Steps (BFS) or milliseconds (earliest arrival) to a reached cell
+    public int distance(int cell) {
+        return dist[cell];
+    }
+
+    // Direction names from the search start to cell, following the parent chain. Immutable, so
+    // a path can be memoized and handed to several callers.
+    public List<String> pathTo(int cell) {
+        if (cell < 0 || !reached(cell)) return null;
+        int length = 0;
+        for (int current = cell; parent[current] >= 0; current = parent[current]) length++;
+        String[] steps = new String[length];
+        int current = cell;
+        for (int i = length - 1; i >= 0; i--) {
+            steps[i] = GameMap.DIR_NAMES[parentDir[current]];
+            current = parent[current];
+        }
+        return List.of(steps);
+    }
+}
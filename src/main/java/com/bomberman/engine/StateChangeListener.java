@@ -0,0 +1,22 @@
+package com.bomberman.engine;
+
+import com.bomberman.model.Item;
+
+// Fine-grained change notifications from GameState, fired on the writer thread after the
+// internal indexes (tiles, blast rays, danger, occupancy) are already updated.
+// Derived caches subscribe to these instead of rebuilding on every event.
+public interface StateChangeListener {
+    // A chest was destroyed or dropped from map_update: the cell is walkable and lets blasts through
+    default void onCellOpened(int cell) {
+    }
+
+    // A chest appeared on a previously empty cell
+    default void onCellBlocked(int cell) {
+    }
+
+    default void onItemAppeared(int cell, Item item) {
+    }
+
+    default void onItemRemoved(int cell, Item item) {
+    }
+}
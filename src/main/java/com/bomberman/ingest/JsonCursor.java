@@ -0,0 +1,310 @@
+package com.bomberman.ingest;
+
+// Minimal pull parser over JSON text. Reads values in document order without building a tree;
+// keys are matched in place against a caller-supplied table, so walking an object allocates nothing.
+// Malformed input fails with IllegalArgumentException.
+public final class JsonCursor {
+    public static final int NO_KEY = -1;
+
+    private final CharSequence in;
+    private int pos;
+
+    public JsonCursor(CharSequence in) {
+        this.in = in;
+    }
+
+    // --- Structure ---
+    public void beginObject() {
+        expect('{');
+    }
+
+    // Next key of the current object as an index into keys (NO_KEY for unknown ones),
+    // positioned on its value. Returns -2 at the closing brace.
+    public int nextKey(String[] keys) {
+        if (!hasNext('}')) return -2;
+        skipWhitespace();
+        expect('"');
+        int start = pos;
+        boolean escaped = false;
+        while (pos < in.length() && in.charAt(pos) != '"') {
+            if (in.charAt(pos) == '\\') {
+                escaped = true;
+                pos++;
+            }
+            pos++;
+        }
+        int end = pos;
+        expect('"');
+        expect(':');
+        if (escaped) return indexOf(keys, unescape(start, end)); // Rare: decode, then match
+        for (int k = 0; k < keys.length; k++) {
+            if (regionEquals(keys[k], start, end)) return k;
+        }
+        return NO_KEY;
+    }
+
+    public void beginArray() {
+        expect('[');
+    }
+
+    // Whether the current array has another element; consumes the separator or the closing bracket
+    public boolean hasNextElement() {
+        return hasNext(']');
+    }
+
+    private boolean hasNext(char close) {
+        skipWhitespace();
+        char c = peekChar();
+        if (c == close) {
+            pos++;
+            return false;
+        }
+        if (c == ',') {
+            pos++;
+            skipWhitespace();
+        }
+        return true;
+    }
+
+    // --- Values ---
+    public boolean isNull() {
+        skipWhitespace();
+        return startsWith("null");
+    }
+
+    // Consume a null if one is next
+    public boolean skipNull() {
+        if (!isNull()) return false;
+        pos += 4;
+        return true;
+    }
+
+    public boolean isString() {
+        skipWhitespace();
+        return peekChar() == '"';
+    }
+
+    public String nextString() {
+        skipWhitespace();
+        if (peekChar() != '"') return String.valueOf(nextScalarText());
+        pos++;
+        int start = pos;
+        boolean escaped = false;
+        while (peekChar() != '"') {
+            if (in.charAt(pos) == '\\') {
+                escaped = true;
+                pos++;
+            }
+            pos++;
+        }
+        int end = pos++;
+        return escaped ? unescape(start, end) : in.subSequence(start, end).toString();
+    }
+
+    // Single-character string value as its char without materializing it:
+    // 0 for null or "", -1 for anything longer
+    public int nextCharValue() {
+        if (skipNull()) return 0;
+        skipWhitespace();
+        expect('"');
+        int start = pos;
+        while (peekChar() != '"') {
+            if (in.charAt(pos) == '\\') pos++;
+            pos++;
+        }
+        int length = pos++ - start;
+        if (length == 0) return 0;
+        return length == 1 ? in.charAt(start) : -1;
+    }
+
+    public boolean nextBoolean() {
+        skipWhitespace();
+        if (startsWith("true")) {
+            pos += 4;
+            return true;
+        }
+        if (startsWith("false")) {
+            pos += 5;
+            return false;
+        }
+        throw error("boolean");
+    }
+
+    // Integer value; fractions are truncated like JSONObject.optInt
+    public long nextLong() {
+        skipWhitespace();
+        boolean quoted = peekChar() == '"';
+        if (quoted) pos++;
+        boolean negative = false;
+        if (peekChar() == '-') {
+            negative = true;
+            pos++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (pos < in.length() && Character.isDigit(in.charAt(pos))) {
+            value = value * 10 + (in.charAt(pos++) - '0');
+            digits++;
+        }
+        if (digits == 0) throw error("number");
+        if (pos < in.length() && (in.charAt(pos) == '.' || in.charAt(pos) == 'e' || in.charAt(pos) == 'E')) {
+            // Exponent or fraction: rare for integer fields, take the exact route
+            int start = pos - digits - (negative ? 1 : 0);
+            skipNumberTail();
+            value = (long) Double.parseDouble(in.subSequence(start, pos).toString());
+            negative = false;
+        }
+        if (quoted) expect('"');
+        return negative ? -value : value;
+    }
+
+    public int nextInt() {
+        return (int) nextLong();
+    }
+
+    public double nextDouble() {
+        skipWhitespace();
+        boolean quoted = peekChar() == '"';
+        if (quoted) pos++;
+        int start = pos;
+        if (peekChar() == '-') pos++;
+        long whole = 0;
+        while (pos < in.length() && Character.isDigit(in.charAt(pos))) {
+            whole = whole * 10 + (in.charAt(pos++) - '0');
+        }
+        double value = whole;
+        if (pos < in.length() && in.charAt(pos) == '.') {
+            pos++;
+            double scale = 0.1;
+            while (pos < in.length() && Character.isDigit(in.charAt(pos))) {
+                value += (in.charAt(pos++) - '0') * scale;
+                scale /= 10;
+            }
+        }
+        if (pos < in.length() && (in.charAt(pos) == 'e' || in.charAt(pos) == 'E')) {
+            skipNumberTail();
+            value = Math.abs(Double.parseDouble(in.subSequence(start, pos).toString()));
+        }
+        if (pos == start) throw error("number");
+        if (in.charAt(start) == '-') value = -value;
+        if (quoted) expect('"');
+        return value;
+    }
+
+    // Skip one complete value of any type - O(value length)
+    public void skipValue() {
+        skipWhitespace();
+        char c = peekChar();
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = in.charAt(pos);
+                if (c == '"') {
+                    skipString();
+                    continue;
+                }
+                if (c == '{' || c == '[') depth++;
+                else if (c == '}' || c == ']') depth--;
+                pos++;
+            } while (depth > 0);
+        } else if (c == '"') {
+            skipString();
+        } else {
+            nextScalarText();
+        }
+    }
+
+    // --- Internals ---
+    private void skipString() {
+        expect('"');
+        while (peekChar() != '"') {
+            if (in.charAt(pos) == '\\') pos++;
+            pos++;
+        }
+        pos++;
+    }
+
+    private CharSequence nextScalarText() {
+        skipWhitespace();
+        int start = pos;
+        while (pos < in.length()) {
+            char c = in.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) break;
+            pos++;
+        }
+        if (pos == start) throw error("value");
+        return in.subSequence(start, pos);
+    }
+
+    private void skipNumberTail() {
+        while (pos < in.length()) {
+            char c = in.charAt(pos);
+            if (!(Character.isDigit(c) || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-')) break;
+            pos++;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < in.length() && Character.isWhitespace(in.charAt(pos))) pos++;
+    }
+
+    private char peekChar() {
+        if (pos >= in.length()) throw error("more input");
+        return in.charAt(pos);
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (peekChar() != c) throw error("'" + c + "'");
+        pos++;
+    }
+
+    private boolean startsWith(String word) {
+        if (pos + word.length() > in.length()) return false;
+        return regionEquals(word, pos, pos + word.length());
+    }
+
+    private boolean regionEquals(String s, int start, int end) {
+        if (end - start != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (in.charAt(start + i) != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(String[] keys, String key) {
+        for (int k = 0; k < keys.length; k++) {
+            if (keys[k].equals(key)) return k;
+        }
+        return NO_KEY;
+    }
+
+    private String unescape(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = in.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char e = in.charAt(++i);
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(in.subSequence(i + 1, i + 5).toString(), 16));
+                    i += 4;
+                    break;
+                default: sb.append(e);
+            }
+        }
+        return sb.toString();
+    }
+
+    private IllegalArgumentException error(String expected) {
+        return new IllegalArgumentException("Expected " + expected + " at offset " + pos);
+    }
+}
@@ -0,0 +1,262 @@
+package com.bomberman.ingest;
+
+import com.bomberman.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Binds event payload text straight into model objects and tile codes in one streaming pass.
+// Field defaults match the JSONObject constructors, so both paths produce identical state.
+public final class PayloadBinder {
+    private static final String[] BOMBER_KEYS = {"uid", "x", "y", "speed", "orient", "isAlive", "size",
+            "name", "score", "explosionRange", "bombCount", "speedCount"};
+    private static final String[] BOMB_KEYS = {"id", "uid", "x", "y", "lifeTime", "createdAt"};
+    private static final String[] CHEST_KEYS = {"x", "y", "size", "type", "isDestroyed"};
+    private static final String[] ITEM_KEYS = {"x", "y", "type", "size", "isCollected"};
+    private static final String[] JOIN_KEYS = {"map", "bombers", "bombs", "chests", "items"};
+    private static final String[] CHEST_EVENT_KEYS = {"x", "y", "item"};
+    private static final String[] ID_KEYS = {"id"};
+
+    // Everything the "user" event carries, in engine form. Lists are null when the key was absent.
+    public static final class JoinPayload {
+        public byte[] tiles;
+        public int rows;
+        public int cols;
+        public List<Bomber> bombers = new ArrayList<>();
+        public List<Bomb> bombs;
+        public List<Chest> chests;
+        public List<Item> items;
+    }
+
+    // A chest_destroyed event: chest position plus the dropped item, if any
+    public static final class ChestDestroyed {
+        public int x;
+        public int y;
+        public Item item;
+    }
+
+    private PayloadBinder() {
+    }
+
+    // --- Events ---
+    public static JoinPayload bindJoin(CharSequence json) {
+        JsonCursor c = new JsonCursor(json);
+        JoinPayload join = new JoinPayload();
+        c.beginObject();
+        for (int key; (key = c.nextKey(JOIN_KEYS)) != -2; ) {
+            if (c.skipNull()) continue;
+            switch (key) {
+                case 0: bindTiles(c, join); break;
+                case 1: join.bombers = bindBombers(c); break;
+                case 2: join.bombs = bindBombs(c); break;
+                case 3: join.chests = bindChests(c); break;
+                case 4: join.items = bindItems(c); break;
+                default: c.skipValue();
+            }
+        }
+        return join;
+    }
+
+    public static Bomber bindBomber(CharSequence json) {
+        return bindBomber(new JsonCursor(json), new Bomber("", 0, 0));
+    }
+
+    // Same as bindBomber, but fills a caller-owned object so per-move binding allocates no Bomber
+    public static Bomber bindBomber(CharSequence json, Bomber into) {
+        return bindBomber(new JsonCursor(json), into);
+    }
+
+    public static Bomb bindBomb(CharSequence json) {
+        return bindBomb(new JsonCursor(json));
+    }
+
+    // Bomb id from a bomb_explode payload, -1 when missing
+    public static int bindBombId(CharSequence json) {
+        JsonCursor c = new JsonCursor(json);
+        int id = -1;
+        c.beginObject();
+        for (int key; (key = c.nextKey(ID_KEYS)) != -2; ) {
+            if (key == 0 && !c.isNull()) id = c.nextInt();
+            else c.skipValue();
+        }
+        return id;
+    }
+
+    public static ChestDestroyed bindChestDestroyed(CharSequence json) {
+        JsonCursor c = new JsonCursor(json);
+        ChestDestroyed event = new ChestDestroyed();
+        c.beginObject();
+        for (int key; (key = c.nextKey(CHEST_EVENT_KEYS)) != -2; ) {
+            if (c.skipNull()) continue;
+            switch (key) {
+                case 0: event.x = c.nextInt(); break;
+                case 1: event.y = c.nextInt(); break;
+                case 2: event.item = bindItem(c); break;
+                default: c.skipValue();
+            }
+        }
+        return event;
+    }
+
+    // --- Tile grid ---
+    // Array of rows, each an array of tile strings or null - O(map), one byte per cell
+    private static void bindTiles(JsonCursor c, JoinPayload join) {
+        byte[] tiles = new byte[256];
+        int rows = 0;
+        int cols = -1;
+        c.beginArray();
+        while (c.hasNextElement()) {
+            int col = 0;
+            c.beginArray();
+            while (c.hasNextElement()) {
+                byte code = nextTile(c);
+                if (cols < 0 || col < cols) { // Extra cells beyond the first row's width are dropped
+                    int index = cols < 0 ? col : rows * cols + col;
+                    if (index >= tiles.length) tiles = Arrays.copyOf(tiles, tiles.length * 2);
+                    tiles[index] = code;
+                }
+                col++;
+            }
+            if (cols < 0) cols = col; // Width comes from the first row, like GameMap.parseMap
+            rows++;
+        }
+        join.rows = rows;
+        join.cols = Math.max(cols, 0);
+        join.tiles = Arrays.copyOf(tiles, join.rows * join.cols);
+    }
+
+    private static byte nextTile(JsonCursor c) {
+        if (!c.isNull() && !c.isString()) {
+            c.skipValue();
+            return GameMap.TILE_OTHER;
+        }
+        int ch = c.nextCharValue();
+        if (ch == 0) return GameMap.TILE_EMPTY;
+        if (ch == 'W') return GameMap.TILE_WALL;
+        if (ch == 'C') return GameMap.TILE_CHEST;
+        return GameMap.TILE_OTHER;
+    }
+
+    // --- Entities ---
+    private static List<Bomber> bindBombers(JsonCursor c) {
+        List<Bomber> list = new ArrayList<>();
+        c.beginArray();
+        while (c.hasNextElement()) list.add(bindBomber(c, new Bomber("", 0, 0)));
+        return list;
+    }
+
+    private static List<Bomb> bindBombs(JsonCursor c) {
+        List<Bomb> list = new ArrayList<>();
+        c.beginArray();
+        while (c.hasNextElement()) list.add(bindBomb(c));
+        return list;
+    }
+
+    private static List<Chest> bindChests(JsonCursor c) {
+        List<Chest> list = new ArrayList<>();
+        c.beginArray();
+        while (c.hasNextElement()) list.add(bindChest(c));
+        return list;
+    }
+
+    private static List<Item> bindItems(JsonCursor c) {
+        List<Item> list = new ArrayList<>();
+        c.beginArray();
+        while (c.hasNextElement()) list.add(bindItem(c));
+        return list;
+    }
+
+    // Every field is reset first: keys the payload leaves out take the JSONObject defaults
+    static Bomber bindBomber(JsonCursor c, Bomber b) {
+        b.uid = "";
+        b.x = 0;
+        b.y = 0;
+        b.speed = 1.0;
+        b.orient = "UP";
+        b.isAlive = true;
+        b.size = 35.0;
+        b.name = "unknown";
+        b.score = 0;
+        b.explosionRange = 2;
+        b.bombCount = 1;
+        b.speedCount = 0;
+        c.beginObject();
+        for (int key; (key = c.nextKey(BOMBER_KEYS)) != -2; ) {
+            if (c.skipNull()) continue;
+            switch (key) {
+                case 0: b.uid = c.nextString(); break;
+                case 1: b.x = c.nextInt(); break;
+                case 2: b.y = c.nextInt(); break;
+                case 3: b.speed = c.nextDouble(); break;
+                case 4: b.orient = c.nextString(); break;
+                case 5: b.isAlive = c.nextBoolean(); break;
+                case 6: b.size = c.nextDouble(); break;
+                case 7: b.name = c.nextString(); break;
+                case 8: b.score = c.nextInt(); break;
+                case 9: b.explosionRange = c.nextInt(); break;
+                case 10: b.bombCount = c.nextInt(); break;
+                case 11: b.speedCount = c.nextInt(); break;
+                default: c.skipValue();
+            }
+        }
+        return b;
+    }
+
+    static Bomb bindBomb(JsonCursor c) {
+        Bomb b = new Bomb(-1, "", 0, 0, 5000, -1);
+        c.beginObject();
+        for (int key; (key = c.nextKey(BOMB_KEYS)) != -2; ) {
+            if (c.skipNull()) continue;
+            switch (key) {
+                case 0: b.id = c.nextInt(); break;
+                case 1: b.uid = c.nextString(); break;
+                case 2: b.x = c.nextInt(); break;
+                case 3: b.y = c.nextInt(); break;
+                case 4: b.lifeTime = c.nextLong(); break;
+                case 5: b.createdAt = c.nextLong(); break;
+                default: c.skipValue();
+            }
+        }
+        if (b.createdAt < 0) b.createdAt = System.currentTimeMillis();
+        return b;
+    }
+
+    static Chest bindChest(JsonCursor c) {
+        Chest chest = new Chest(0, 0, 0);
+        c.beginObject();
+        for (int key; (key = c.nextKey(CHEST_KEYS)) != -2; ) {
+            if (c.skipNull()) continue;
+            switch (key) {
+                case 0: chest.x = c.nextInt(); break;
+                case 1: chest.y = c.nextInt(); break;
+                case 2: chest.size = c.nextDouble(); break;
+                case 3: {
+                    String type = c.nextString();
+                    chest.type = type.isEmpty() ? 'C' : type.charAt(0);
+                    break;
+                }
+                case 4: chest.isDestroyed = c.nextBoolean(); break;
+                default: c.skipValue();
+            }
+        }
+        return chest;
+    }
+
+    static Item bindItem(JsonCursor c) {
+        Item item = new Item("", 0, 0);
+        c.beginObject();
+        for (int key; (key = c.nextKey(ITEM_KEYS)) != -2; ) {
+            if (c.skipNull()) continue;
+            switch (key) {
+                case 0: item.x = c.nextInt(); break;
+                case 1: item.y = c.nextInt(); break;
+                case 2: item.type = c.nextString(); break;
+                case 3: item.size = c.nextDouble(); break;
+                case 4: item.isCollected = c.nextBoolean(); break;
+                default: c.skipValue();
+            }
+        }
+        return item;
+    }
+}
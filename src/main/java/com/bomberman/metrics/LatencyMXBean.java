@@ -0,0 +1,18 @@
+package com.bomberman.metrics;
+
+// JMX view of one latency histogram (registered as com.bomberman:type=Latency,name=<stage>)
+public interface LatencyMXBean {
+    long getCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
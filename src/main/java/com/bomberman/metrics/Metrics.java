@@ -0,0 +1,109 @@
+package com.bomberman.metrics;
+
+import com.bomberman.engine.EventApplier;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Process-wide latency histograms for each stage of the bot, exported over HTTP and JMX
+public final class Metrics {
+    public static final LatencyHistogram DECISION =
+            new LatencyHistogram("decision", "One decision tick (BotController.decide)");
+    public static final LatencyHistogram TARGET_SEARCH =
+            new LatencyHistogram("target_search", "BombingStrategy.findBestBombingPosition");
+    public static final LatencyHistogram RETREAT_SEARCH =
+            new LatencyHistogram("retreat_search", "BombingStrategy.findRetreatPath");
+    public static final LatencyHistogram DANGER_UPDATE =
+            new LatencyHistogram("danger_update", "Incremental DangerIndex maintenance per bomb or tile change");
+    public static final LatencyHistogram DETONATION_TIMELINE =
+            new LatencyHistogram("detonation_timeline", "DetonationTimeline.compute with chain reactions");
+    public static final LatencyHistogram EVENT_TO_ACTION =
+            new LatencyHistogram("event_to_action", "From a state-changing event arriving to the next command emit");
+    public static final LatencyHistogram COMMAND_EMIT =
+            new LatencyHistogram("command_emit", "From a command being queued to socket.emit returning on the transport thread");
+
+    // Outbound command counters, summed over every bot in the process
+    public static final AtomicLong COMMANDS_EMITTED = new AtomicLong();
+    public static final AtomicLong COMMANDS_DEDUPED = new AtomicLong();
+    public static final AtomicLong COMMANDS_DROPPED = new AtomicLong(); // Queue full
+    public static final AtomicLong COMMAND_QUEUE_DEPTH = new AtomicLong(); // Gauge: queued, not yet emitted
+
+    // Event handling time by type, indexed like EventApplier.EVENTS
+    private static final LatencyHistogram[] EVENTS = new LatencyHistogram[EventApplier.EVENTS.length];
+
+    private static final List<LatencyHistogram> ALL = new ArrayList<>();
+
+    static {
+        Collections.addAll(ALL, DECISION, TARGET_SEARCH, RETREAT_SEARCH, DANGER_UPDATE, DETONATION_TIMELINE, EVENT_TO_ACTION, COMMAND_EMIT);
+        for (int i = 0; i < EVENTS.length; i++) {
+            EVENTS[i] = new LatencyHistogram("event_" + EventApplier.EVENTS[i], "Handling of the " + EventApplier.EVENTS[i] + " event");
+            ALL.add(EVENTS[i]);
+        }
+    }
+
+    private static volatile boolean jmxRegistered;
+
+    private Metrics() {
+    }
+
+    // Histogram for an event code, null for events outside EventApplier.EVENTS
+    public static LatencyHistogram event(int code) {
+        return code >= 0 && code < EVENTS.length ? EVENTS[code] : null;
+    }
+
+    public static List<LatencyHistogram> all() {
+        return Collections.unmodifiableList(ALL);
+    }
+
+    // Prometheus text exposition: one summary per histogram, seconds as the base unit
+    public static String toPrometheus() {
+        StringBuilder sb = new StringBuilder(ALL.size() * 512);
+        for (LatencyHistogram h : ALL) {
+            String metric = "bomberman_" + h.getName() + "_seconds";
+            sb.append("# HELP ").append(metric).append(' ').append(h.getHelp()).append('\n');
+            sb.append("# TYPE ").append(metric).append(" summary\n");
+            for (double q : new double[]{0.5, 0.9, 0.99, 0.999}) {
+                sb.append(metric).append("{quantile=\"").append(q).append("\"} ")
+                        .append(seconds(h.quantile(q))).append('\n');
+            }
+            sb.append(metric).append("_sum ").append(seconds(h.getSumNanos())).append('\n');
+            sb.append(metric).append("_count ").append(h.getCount()).append('\n');
+        }
+        counter(sb, "bomberman_commands_emitted_total", "counter", "Commands sent to the server", COMMANDS_EMITTED);
+        counter(sb, "bomberman_commands_deduped_total", "counter", "Commands dropped as repeats of the previous one", COMMANDS_DEDUPED);
+        counter(sb, "bomberman_commands_dropped_total", "counter", "Commands dropped on a full queue", COMMANDS_DROPPED);
+        counter(sb, "bomberman_command_queue_depth", "gauge", "Commands queued and not yet emitted", COMMAND_QUEUE_DEPTH);
+        return sb.toString();
+    }
+
+    private static void counter(StringBuilder sb, String metric, String type, String help, AtomicLong value) {
+        sb.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+        sb.append(metric).append(' ').append(value.get()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    // Register every histogram as an MXBean; idempotent
+    public static synchronized void registerJmx() {
+        if (jmxRegistered) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (LatencyHistogram h : ALL) {
+            try {
+                ObjectName name = new ObjectName("com.bomberman:type=Latency,name=" + h.getName());
+                if (!server.isRegistered(name)) server.registerMBean(h, name);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        jmxRegistered = true;
+    }
+}
@@ -0,0 +1,170 @@
+package com.bomberman.model;
+
+import java.util.*;
+
+// Precomputed blast rays: for every cell and direction, the distance to the first wall
+// (or map edge) and to the first chest in front of it. Any blast range then resolves in O(1).
+// Owned by GameMap and kept in sync with its tiles.
+public class BlastRayTable {
+    public static final int NONE = 0;
+
+    // Wall distances depend only on the wall layout, which never changes during a game and is
+    // never written after a rebuild: bots on the same map (BotHost) share one array - LRU, small
+    private static final int SHARED_LAYOUTS = 16;
+    private static final Map<WallLayout, short[]> SHARED_WALL_DIST = Collections.synchronizedMap(
+            new LinkedHashMap<WallLayout, short[]>(32, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<WallLayout, short[]> eldest) {
+                    return size() > SHARED_LAYOUTS;
+                }
+            });
+
+    private static final class WallLayout {
+        final int rows;
+        final int cols;
+        final long[] walls; // One bit per cell
+
+        WallLayout(GameMap map) {
+            rows = map.getMapHeight();
+            cols = map.getMapWidth();
+            walls = new long[(rows * cols + 63) >>> 6];
+            for (int cell = 0; cell < rows * cols; cell++) {
+                if (map.isWall(cell)) walls[cell >>> 6] |= 1L << cell;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof WallLayout)) return false;
+            WallLayout other = (WallLayout) obj;
+            return rows == other.rows && cols == other.cols && Arrays.equals(walls, other.walls);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * rows + cols) + Arrays.hashCode(walls);
+        }
+    }
+
+    private final GameMap map;
+    private short[] wallDist = new short[0];  // Steps to the first wall/edge, chests ignored
+    private short[] chestDist = new short[0]; // Steps to the first chest before that wall, NONE if there is none
+    private int[] steps = new int[4];         // Cell id delta for one step in each direction
+
+    BlastRayTable(GameMap map) {
+        this.map = map;
+    }
+
+    // View sharing another table's arrays, used by GameMap snapshots
+    BlastRayTable(GameMap map, BlastRayTable source) {
+        this.map = map;
+        this.wallDist = source.wallDist;
+        this.chestDist = source.chestDist;
+        this.steps = source.steps;
+    }
+
+    // Take a private copy before mutating arrays a snapshot still references.
+    // Chests never affect wall distances, so that half stays shared for the whole game.
+    void detach() {
+        chestDist = chestDist.clone();
+    }
+
+    // Full rebuild after the map is (re)parsed - O(map); wall distances come from the
+    // shared cache when another map with the same walls built them already
+    void rebuild() {
+        int cols = map.getMapWidth();
+        int rows = map.getMapHeight();
+        WallLayout layout = new WallLayout(map);
+        short[] shared = SHARED_WALL_DIST.get(layout);
+        boolean walls = shared == null;
+        wallDist = walls ? new short[rows * cols * 4] : shared;
+        chestDist = new short[rows * cols * 4];
+        steps = new int[]{-cols, cols, -1, 1};
+
+        // Sweep each direction so the neighbor a cell depends on is always computed first
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                recompute(r * cols + c, GameMap.DIR_UP, walls);
+                recompute(r * cols + c, GameMap.DIR_LEFT, walls);
+            }
+        }
+        for (int r = rows - 1; r >= 0; r--) {
+            for (int c = cols - 1; c >= 0; c--) {
+                recompute(r * cols + c, GameMap.DIR_DOWN, walls);
+                recompute(r * cols + c, GameMap.DIR_RIGHT, walls);
+            }
+        }
+        if (walls) SHARED_WALL_DIST.put(layout, wallDist);
+    }
+
+    // A tile changed (chest destroyed or appeared): fix the rays that pass through it - O(rows + cols)
+    void onTileChanged(int cell) {
+        for (int dir = 0; dir < 4; dir++) {
+            int back = dir ^ 1; // UP<->DOWN, LEFT<->RIGHT
+            recompute(cell, dir, false);
+            int current = cell;
+            while (true) {
+                current = map.neighbor(current, back);
+                if (current < 0 || map.isWall(current)) break;
+                recompute(current, dir, false);
+                if (map.isChest(current)) break; // Rays from further back stop on this chest
+            }
+        }
+    }
+
+    private void recompute(int cell, int dir, boolean walls) {
+        int idx = cell * 4 + dir;
+        int next = map.neighbor(cell, dir);
+        if (next < 0 || map.isWall(next)) {
+            if (walls) wallDist[idx] = 1;
+            chestDist[idx] = NONE;
+            return;
+        }
+        int nextIdx = next * 4 + dir;
+        if (walls) wallDist[idx] = (short) (wallDist[nextIdx] + 1);
+        if (map.isChest(next)) {
+            chestDist[idx] = 1;
+        } else {
+            chestDist[idx] = chestDist[nextIdx] == NONE ? NONE : (short) (chestDist[nextIdx] + 1);
+        }
+    }
+
+    // --- Queries ---
+    public int wallDistance(int cell, int dir) {
+        return wallDist[cell * 4 + dir];
+    }
+
+    public int chestDistance(int cell, int dir) {
+        return chestDist[cell * 4 + dir];
+    }
+
+    // Number of cells a blast of this range covers along one ray (center excluded)
+    public int reach(int cell, int dir, int range) {
+        int idx = cell * 4 + dir;
+        int limit = chestDist[idx] != NONE ? chestDist[idx] : wallDist[idx] - 1;
+        return Math.min(range, limit);
+    }
+
+    // Whether a blast of this range destroys a chest along one ray
+    public boolean hitsChest(int cell, int dir, int range) {
+        int d = chestDist[cell * 4 + dir];
+        return d != NONE && d <= range;
+    }
+
+    // Cell id k steps from cell along dir (caller stays within reach/wallDistance)
+    public int cellAlong(int cell, int dir, int k) {
+        return cell + steps[dir] * k;
+    }
+
+    // Collect the cells one blast ray reaches into out, returns how many were written - O(reach)
+    public int walkRay(int cell, int dir, int range, int[] out) {
+        int n = reach(cell, dir, range);
+        int step = steps[dir];
+        int current = cell;
+        for (int i = 0; i < n; i++) {
+            current += step;
+            out[i] = current;
+        }
+        return n;
+    }
+}
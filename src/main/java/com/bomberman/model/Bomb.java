@@ -9,6 +9,16 @@ public class Bomb {
     public int id; // Use int for ID as per bomb_explode
     public long lifeTime; // ms
     public long createdAt; // ms
+    public int range = -1; // Blast range when placed; -1 until GameState records the owner's
+
+    public Bomb(int id, String uid, int x, int y, long lifeTime, long createdAt) {
+        this.id = id;
+        this.uid = uid;
+        this.x = x;
+        this.y = y;
+        this.lifeTime = lifeTime;
+        this.createdAt = createdAt;
+    }
 
     public Bomb(JSONObject json) throws JSONException {
         this.x = json.optInt("x", 0);
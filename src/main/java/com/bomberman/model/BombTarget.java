@@ -11,6 +11,21 @@ public class BombTarget {
     boolean hasRetreat;
     List<String> pathToTarget; // Path to reach the bombing position
     List<String> retreatPath;  // Path to escape after placing bomb
+
+    public BombTarget() {
+    }
+
+    // Copy, so a memoized target is never changed through the object a caller received
+    public BombTarget(BombTarget other) {
+        row = other.row;
+        col = other.col;
+        chestsHit = other.chestsHit;
+        enemiesHit = other.enemiesHit;
+        score = other.score;
+        hasRetreat = other.hasRetreat;
+        pathToTarget = other.pathToTarget; // Immutable lists (SearchKernel.pathTo), safe to share
+        retreatPath = other.retreatPath;
+    }
     
     @Override
     public String toString() {
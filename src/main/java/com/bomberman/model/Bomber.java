@@ -16,6 +16,35 @@ public class Bomber {
     public int bombCount;
     public int speedCount;
 
+    public Bomber(String uid, int x, int y) {
+        this.uid = uid;
+        this.x = x;
+        this.y = y;
+        this.speed = 1.0;
+        this.orient = "UP";
+        this.isAlive = true;
+        this.size = 35.0;
+        this.name = uid;
+        this.explosionRange = 2;
+        this.bombCount = 1;
+    }
+
+    // Copy, so a published Bomber is never mutated in place
+    public Bomber(Bomber other) {
+        this.uid = other.uid;
+        this.x = other.x;
+        this.y = other.y;
+        this.speed = other.speed;
+        this.orient = other.orient;
+        this.isAlive = other.isAlive;
+        this.size = other.size;
+        this.name = other.name;
+        this.score = other.score;
+        this.explosionRange = other.explosionRange;
+        this.bombCount = other.bombCount;
+        this.speedCount = other.speedCount;
+    }
+
     public Bomber(JSONObject json) throws JSONException {
         this.x = json.optInt("x", 0);
         this.y = json.optInt("y", 0);
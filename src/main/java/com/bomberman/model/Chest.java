@@ -9,6 +9,13 @@ public class Chest {
     public char type; // 'C'
     public boolean isDestroyed;
 
+    public Chest(int x, int y, double size) {
+        this.x = x;
+        this.y = y;
+        this.size = size;
+        this.type = 'C';
+    }
+
     public Chest(JSONObject json) throws JSONException {
         this.x = json.getInt("x");
         this.y = json.getInt("y");
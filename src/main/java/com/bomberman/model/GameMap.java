@@ -2,26 +2,105 @@ package com.bomberman.model;
 
 import org.json.JSONArray;
 
+// Packed tile grid: one byte per cell, addressed by cell id = row * cols + col
 public class GameMap {
-    private String[][] map;
-    private int mapWidth;
-    private int mapHeight;
+    // Tile codes (low bits of each cell byte)
+    public static final byte TILE_EMPTY = 0;
+    public static final byte TILE_WALL = 1;
+    public static final byte TILE_CHEST = 2;
+    public static final byte TILE_OTHER = 3; // Unknown non-empty tile: blocks movement, not blasts
+    public static final int TILE_MASK = 0x0F;
+
+    // Property bits packed next to the tile code
+    public static final int FLAG_SOLID = 0x10;      // Bombers can't walk through
+    public static final int FLAG_BLAST_STOP = 0x20; // Explosions don't propagate past it
+
+    // Direction codes shared by every grid walk: UP, DOWN, LEFT, RIGHT
+    public static final int DIR_UP = 0;
+    public static final int DIR_DOWN = 1;
+    public static final int DIR_LEFT = 2;
+    public static final int DIR_RIGHT = 3;
+    public static final int[] ROW_DIRS = {-1, 1, 0, 0};
+    public static final int[] COL_DIRS = {0, 0, -1, 1};
+    public static final String[] DIR_NAMES = {"UP", "DOWN", "LEFT", "RIGHT"};
+
+    private static final byte[] ENCODED = {
+            TILE_EMPTY,
+            (byte) (TILE_WALL | FLAG_SOLID | FLAG_BLAST_STOP),
+            (byte) (TILE_CHEST | FLAG_SOLID | FLAG_BLAST_STOP),
+            (byte) (TILE_OTHER | FLAG_SOLID)
+    };
+
+    private byte[] cells;
+    private int mapWidth;  // cols
+    private int mapHeight; // rows
     private final int TILE_SIZE = 40;
+    private final BlastRayTable rays;
+    private boolean shared; // Arrays are referenced by a snapshot: copy before the next write
+    private long tileHash;  // Zobrist hash of every non-empty tile
+
+    public GameMap() {
+        rays = new BlastRayTable(this);
+    }
+
+    // Read-only view sharing this map's arrays (structural sharing for snapshots)
+    private GameMap(GameMap source) {
+        cells = source.cells;
+        mapWidth = source.mapWidth;
+        mapHeight = source.mapHeight;
+        tileHash = source.tileHash;
+        rays = new BlastRayTable(this, source.rays);
+    }
+
+    // Freeze the current tiles into a view; the live map copies its arrays on the next setTile only
+    public GameMap snapshot() {
+        shared = true;
+        return new GameMap(this);
+    }
 
     public void parseMap(JSONArray mapArray) {
-        mapHeight = mapArray.length();
-        mapWidth = mapArray.getJSONArray(0).length();
-        map = new String[mapHeight][mapWidth];
-        for (int i = 0; i < mapHeight; i++) {
+        int rows = mapArray.length();
+        int cols = rows > 0 ? mapArray.getJSONArray(0).length() : 0;
+        byte[] packed = new byte[rows * cols];
+        for (int i = 0; i < rows; i++) {
             JSONArray row = mapArray.getJSONArray(i);
-            for (int j = 0; j < mapWidth; j++) {
-                map[i][j] = row.isNull(j) ? null : row.getString(j);
+            int base = i * cols;
+            for (int j = 0; j < cols; j++) {
+                packed[base + j] = ENCODED[row.isNull(j) ? TILE_EMPTY : tileCode(row.getString(j))];
             }
         }
+        install(packed, rows, cols);
     }
 
-    public String[][] getMap() {
-        return map;
+    // Load a grid of tile codes (row-major, one per cell) without going through JSON
+    public void loadTiles(byte[] tiles, int rows, int cols) {
+        byte[] packed = new byte[rows * cols];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = ENCODED[tiles[i] & TILE_MASK];
+        }
+        install(packed, rows, cols);
+    }
+
+    private void install(byte[] packed, int rows, int cols) {
+        mapWidth = cols;
+        mapHeight = rows;
+        cells = packed;
+        shared = false;
+        tileHash = Zobrist.key(Zobrist.TILE, -1, cols); // Same tiles on a different grid are a different map
+        for (int cell = 0; cell < packed.length; cell++) tileHash ^= tileKey(cell, packed[cell] & TILE_MASK);
+        rays.rebuild();
+    }
+
+    // Map the server's tile strings to tile codes
+    public static byte tileCode(String tile) {
+        if (tile == null || tile.isEmpty()) return TILE_EMPTY;
+        if ("W".equals(tile)) return TILE_WALL;
+        if ("C".equals(tile)) return TILE_CHEST;
+        return TILE_OTHER;
+    }
+
+    public boolean isLoaded() {
+        return cells != null && cells.length > 0;
     }
 
     public int getMapWidth() {
@@ -32,7 +111,99 @@ public class GameMap {
         return mapHeight;
     }
 
+    public int getCellCount() {
+        return mapWidth * mapHeight;
+    }
+
     public int getTileSize() {
         return TILE_SIZE;
     }
-}
\ No newline at end of file
+
+    public BlastRayTable getRays() {
+        return rays;
+    }
+
+    // --- Cell id addressing ---
+    public int cellId(int row, int col) {
+        return row * mapWidth + col;
+    }
+
+    public int rowOf(int cell) {
+        return cell / mapWidth;
+    }
+
+    public int colOf(int cell) {
+        return cell % mapWidth;
+    }
+
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < mapHeight && col >= 0 && col < mapWidth;
+    }
+
+    // Cell containing a pixel coordinate, or -1 when off the map
+    public int cellAt(double x, double y) {
+        int row = (int) (y / TILE_SIZE);
+        int col = (int) (x / TILE_SIZE);
+        if (x < 0 || y < 0 || !inBounds(row, col)) return -1;
+        return row * mapWidth + col;
+    }
+
+    // Pixel coordinate of a cell's center
+    public int centerX(int cell) {
+        return colOf(cell) * TILE_SIZE + TILE_SIZE / 2;
+    }
+
+    public int centerY(int cell) {
+        return rowOf(cell) * TILE_SIZE + TILE_SIZE / 2;
+    }
+
+    // Adjacent cell in direction dir, or -1 when off the map
+    public int neighbor(int cell, int dir) {
+        int row = cell / mapWidth + ROW_DIRS[dir];
+        int col = cell % mapWidth + COL_DIRS[dir];
+        if (row < 0 || row >= mapHeight || col < 0 || col >= mapWidth) return -1;
+        return row * mapWidth + col;
+    }
+
+    // --- Tile queries ---
+    public int getTile(int cell) {
+        return cells[cell] & TILE_MASK;
+    }
+
+    public void setTile(int cell, byte tile) {
+        if ((cells[cell] & TILE_MASK) == tile) return;
+        if (shared) {
+            cells = cells.clone();
+            rays.detach();
+            shared = false;
+        }
+        tileHash ^= tileKey(cell, cells[cell] & TILE_MASK) ^ tileKey(cell, tile);
+        cells[cell] = ENCODED[tile];
+        rays.onTileChanged(cell);
+    }
+
+    private static long tileKey(int cell, int tile) {
+        return tile == TILE_EMPTY ? 0 : Zobrist.key(Zobrist.TILE, cell, tile);
+    }
+
+    // Equal hashes mean (with overwhelming probability) the same walls and chests - O(1)
+    public long getTileHash() {
+        return tileHash;
+    }
+
+    public boolean isWalkable(int cell) {
+        return (cells[cell] & FLAG_SOLID) == 0;
+    }
+
+    public boolean isWall(int cell) {
+        return (cells[cell] & TILE_MASK) == TILE_WALL;
+    }
+
+    public boolean isChest(int cell) {
+        return (cells[cell] & TILE_MASK) == TILE_CHEST;
+    }
+
+    public boolean stopsBlast(int cell) {
+        return (cells[cell] & FLAG_BLAST_STOP) != 0;
+    }
+}
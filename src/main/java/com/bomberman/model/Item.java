@@ -9,6 +9,13 @@ public class Item {
     public double size;
     public boolean isCollected;
 
+    public Item(String type, int x, int y) {
+        this.type = type;
+        this.x = x;
+        this.y = y;
+        this.size = 1.0;
+    }
+
     public Item(JSONObject json) throws JSONException {
         this.x = json.optInt("x", 0);
         this.y = json.optInt("y", 0);
@@ -1,7 +1,5 @@
 package com.bomberman.model;
 
-import java.util.Objects;
-
 public class Position {
     public int x;
     public int y;
@@ -21,7 +19,7 @@ public class Position {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y; // Objects.hash would box both ints into a varargs array
     }
 
     @Override
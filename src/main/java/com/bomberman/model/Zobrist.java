@@ -0,0 +1,34 @@
+package com.bomberman.model;
+
+// Zobrist keys for incremental state hashing: a state's hash is the XOR of the keys of its
+// features (a chest on a cell, a bomb of some range on a cell, a bomber on a cell), so adding
+// or removing one feature is a single XOR. Keys are a fixed pseudo-random function of
+// (kind, a, b) instead of a table, so every map size and every GameState agrees on them.
+public final class Zobrist {
+    public static final int TILE = 1;    // (cell, tile code)
+    public static final int BOMB = 2;    // (cell, range)
+    public static final int BOMBER = 3;  // (slot, cell)
+    public static final int HEAT = 4;    // (slot * cells + cell, weight bits)
+    public static final int TARGET = 5;  // Target search parameters (cell, range/speed/radius)
+    public static final int RETREAT = 6; // Retreat query parameters (cell, range/max distance)
+
+    private Zobrist() {
+    }
+
+    public static long key(int kind, int a, int b) {
+        return mix(mix(((long) kind << 32) | (a & 0xFFFFFFFFL)) ^ (b & 0xFFFFFFFFL));
+    }
+
+    // Fold one more query parameter into a key
+    public static long fold(long key, long value) {
+        return mix(key ^ mix(value));
+    }
+
+    // SplitMix64 finalizer: every input bit flips about half the output bits
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,259 @@
+package com.bomberman.planner;
+
+import com.bomberman.engine.GameSnapshot;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Anytime Monte Carlo tree search over action sequences (move, bomb, wait) on the PlanState
+// forward model. Runs until the wall-clock budget expires (or an iteration cap is reached) and
+// returns the best root action. With no budget and a cap, the result depends only on the seed.
+// Root parallelization: every ForkJoin worker grows its own tree from the same root, and the
+// root statistics are summed at the end, so no tree is ever shared between threads.
+public class MctsPlanner {
+    private static final double EXPLORATION = 1.4;
+    private static final double DISCOUNT = 0.95;
+    private static final double REWARD_SCALE = 10.0; // Keeps UCT values roughly in [-1, 1]
+    private static final double SAFE_ROLLOUT_BIAS = 0.85;
+
+    private final long budgetNanos;
+    private final int workers;
+    private final int horizon;
+    private final int maxIterations; // Per worker, 0 for no cap (budget only)
+                                     // A budget of 0 means no deadline (cap only)
+    private final ForkJoinPool pool;
+    private long seed;
+
+    // Best root action of one search
+    public static final class Plan {
+        public final int action;
+        public final double value;   // Mean discounted reward of that action
+        public final long iterations;
+
+        Plan(int action, double value, long iterations) {
+            this.action = action;
+            this.value = value;
+            this.iterations = iterations;
+        }
+
+        @Override
+        public String toString() {
+            return "Plan{action=" + action + ", value=" + String.format("%.2f", value) + ", iterations=" + iterations + "}";
+        }
+    }
+
+    public MctsPlanner(long budgetMs, int workers) {
+        this(budgetMs, workers, 12, 0, 1L);
+    }
+
+    public MctsPlanner(long budgetMs, int workers, int horizon, int maxIterations, long seed) {
+        if (budgetMs <= 0 && maxIterations <= 0) {
+            throw new IllegalArgumentException("MctsPlanner needs a time budget or an iteration cap");
+        }
+        this.budgetNanos = budgetMs * 1_000_000L;
+        this.workers = Math.max(1, workers);
+        this.horizon = horizon;
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+        this.pool = this.workers > 1 ? ForkJoinPool.commonPool() : null;
+    }
+
+    // Search from the snapshot; null when there is no state to plan from or no iteration finished
+    public Plan plan(GameSnapshot snapshot, long now) {
+        long deadline = System.nanoTime() + budgetNanos;
+        PlanState root = PlanState.from(snapshot, now);
+        if (root == null) return null;
+
+        long baseSeed = seed++;
+        RootStats stats = workers > 1
+                ? pool.invoke(new SearchTask(root, deadline, baseSeed, 0, workers))
+                : search(root, deadline, baseSeed);
+
+        // Most visited action wins; mean value breaks ties
+        int best = -1;
+        for (int a = 0; a < PlanState.ACTIONS; a++) {
+            if (stats.visits[a] == 0) continue;
+            if (best < 0 || stats.visits[a] > stats.visits[best]
+                    || (stats.visits[a] == stats.visits[best] && stats.mean(a) > stats.mean(best))) {
+                best = a;
+            }
+        }
+        return best < 0 ? null : new Plan(best, stats.mean(best) * REWARD_SCALE, stats.iterations);
+    }
+
+    // --- Parallel driver ---
+    private static final class RootStats {
+        final long[] visits = new long[PlanState.ACTIONS];
+        final double[] values = new double[PlanState.ACTIONS];
+        long iterations;
+
+        double mean(int action) {
+            return visits[action] > 0 ? values[action] / visits[action] : 0;
+        }
+
+        RootStats add(RootStats other) {
+            for (int a = 0; a < PlanState.ACTIONS; a++) {
+                visits[a] += other.visits[a];
+                values[a] += other.values[a];
+            }
+            iterations += other.iterations;
+            return this;
+        }
+    }
+
+    // Splits the worker range in halves; each leaf runs one independent tree search.
+    // Never serialized: the task lives only inside the pool for one decision
+    @SuppressWarnings("serial")
+    private final class SearchTask extends RecursiveTask<RootStats> {
+        private final PlanState root;
+        private final long deadline;
+        private final long baseSeed;
+        private final int from;
+        private final int to;
+
+        SearchTask(PlanState root, long deadline, long baseSeed, int from, int to) {
+            this.root = root;
+            this.deadline = deadline;
+            this.baseSeed = baseSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected RootStats compute() {
+            if (to - from == 1) return search(root, deadline, baseSeed * 31 + from);
+            int mid = (from + to) >>> 1;
+            SearchTask right = new SearchTask(root, deadline, baseSeed, mid, to);
+            right.fork();
+            RootStats left = new SearchTask(root, deadline, baseSeed, from, mid).compute();
+            return left.add(right.join());
+        }
+    }
+
+    // --- One tree ---
+    private static final class Node {
+        final Node parent;
+        final int action;
+        Node[] children;   // Indexed by action, null for illegal ones; null array until expanded
+        int untried;       // Bit mask of legal actions not expanded yet
+        long visits;
+        double value;
+
+        Node(Node parent, int action) {
+            this.parent = parent;
+            this.action = action;
+        }
+    }
+
+    private RootStats search(PlanState root, long deadline, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Node tree = new Node(null, -1);
+        PlanState work = root.copy(); // Reset from the root every iteration, no per-sample garbage
+        long iterations = 0;
+        // At least one sample, so a cold first call (class loading, timeline build) still answers
+        while (iterations == 0 || (budgetNanos <= 0 || System.nanoTime() < deadline)
+                && (maxIterations == 0 || iterations < maxIterations)) {
+            root.copyTo(work);
+            iterate(tree, work, random);
+            iterations++;
+        }
+
+        RootStats stats = new RootStats();
+        stats.iterations = iterations;
+        if (tree.children != null) {
+            for (Node child : tree.children) {
+                if (child == null) continue;
+                stats.visits[child.action] = child.visits;
+                stats.values[child.action] = child.value;
+            }
+        }
+        return stats;
+    }
+
+    // Selection, expansion, rollout and backpropagation for one sample
+    private void iterate(Node root, PlanState state, SplittableRandom random) {
+        Node node = root;
+        int depth = 0;
+        double discount = 1.0;
+
+        // Select down fully expanded nodes
+        while (depth < horizon && state.isAlive()) {
+            if (node.children == null) expand(node, state);
+            if (node.untried != 0) break;
+            node = select(node);
+            state.step(node.action, discount);
+            discount *= DISCOUNT;
+            depth++;
+        }
+
+        // Expand one untried action
+        if (depth < horizon && state.isAlive() && node.untried != 0) {
+            int action = pickUntried(node.untried, random);
+            node.untried &= ~(1 << action);
+            Node child = new Node(node, action);
+            node.children[action] = child;
+            node = child;
+            state.step(action, discount);
+            discount *= DISCOUNT;
+            depth++;
+        }
+
+        // Rollout to the horizon
+        while (depth < horizon && state.isAlive()) {
+            state.step(rolloutAction(state, random), discount);
+            discount *= DISCOUNT;
+            depth++;
+        }
+        state.finish(discount);
+
+        double value = state.getReward() / REWARD_SCALE;
+        for (Node n = node; n != null; n = n.parent) {
+            n.visits++;
+            n.value += value;
+        }
+    }
+
+    private static void expand(Node node, PlanState state) {
+        node.children = new Node[PlanState.ACTIONS];
+        for (int a = 0; a < PlanState.ACTIONS; a++) {
+            if (state.isLegal(a)) node.untried |= 1 << a;
+        }
+    }
+
+    private static Node select(Node node) {
+        double logN = Math.log(Math.max(1, node.visits));
+        Node best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (Node child : node.children) {
+            if (child == null) continue;
+            double score = child.value / child.visits + EXPLORATION * Math.sqrt(logN / child.visits);
+            if (score > bestScore) {
+                bestScore = score;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    private static int pickUntried(int mask, SplittableRandom random) {
+        int k = random.nextInt(Integer.bitCount(mask));
+        for (int a = 0; a < PlanState.ACTIONS; a++) {
+            if ((mask & (1 << a)) != 0 && k-- == 0) return a;
+        }
+        return PlanState.ACTION_WAIT;
+    }
+
+    // Random legal action, biased toward ending the step outside every pending blast
+    private static int rolloutAction(PlanState state, SplittableRandom random) {
+        int legal = 0;
+        int safe = 0;
+        for (int a = 0; a < PlanState.ACTIONS; a++) {
+            if (!state.isLegal(a)) continue;
+            legal |= 1 << a;
+            if (a != PlanState.ACTION_BOMB && !state.isThreatened(state.targetCell(a))) safe |= 1 << a;
+        }
+        if (safe != 0 && random.nextDouble() < SAFE_ROLLOUT_BIAS) return pickUntried(safe, random);
+        return pickUntried(legal, random);
+    }
+}
@@ -0,0 +1,324 @@
+package com.bomberman.planner;
+
+import com.bomberman.engine.BomberTable;
+import com.bomberman.engine.CoordMap;
+import com.bomberman.engine.DecisionScheduler;
+import com.bomberman.engine.DetonationTimeline;
+import com.bomberman.engine.GameSnapshot;
+import com.bomberman.model.Bomb;
+import com.bomberman.model.GameMap;
+import com.bomberman.model.Item;
+
+import java.util.Arrays;
+
+// Compact forward model of one game for the planner: tile grid, pending bombs, our bomber and
+// enemy cells, advanced one tile step per action. Copying a state is a few small array copies.
+//
+// Simplifications: enemies stand still and place no bombs, every step takes the time our bomber
+// needs to cross one tile, and blasts resolve at step granularity (chains included).
+public final class PlanState {
+    public static final int ACTION_BOMB = 4;
+    public static final int ACTION_WAIT = 5;
+    public static final int ACTIONS = 6; // UP, DOWN, LEFT, RIGHT (GameMap.DIR_*), BOMB, WAIT
+
+    static final double CHEST_REWARD = 1.0;
+    static final double ENEMY_REWARD = 3.0;   // Same weighting as BombingStrategy
+    static final double ITEM_REWARD = 0.5;
+    static final double DEATH_PENALTY = -10.0;
+
+    private static final long DEFAULT_BOMB_LIFE_MS = 5000;
+    private static final int ITEM_SPEED = 1;
+    private static final int ITEM_RANGE = 2;
+    private static final int ITEM_BOMBS = 3;
+    private static final int MAX_BOMBS = 32;
+
+    // Shared, never written after construction
+    private final GameMap map;  // Geometry only (neighbor); tiles live in the array below
+    private final long stepMs;
+    private final long bombLifeMs;
+
+    private byte[] tiles;       // GameMap tile codes, chests cleared as blasts destroy them
+    private byte[] items;       // ITEM_* per cell, 0 when none
+    private int[] enemyCells;   // -1 once killed
+    private int bombTotal;
+    private int[] bombCells = new int[MAX_BOMBS];
+    private long[] bombTimes = new long[MAX_BOMBS]; // Detonation time relative to the root state
+    private int[] bombRanges = new int[MAX_BOMBS];
+    private boolean[] bombMine = new boolean[MAX_BOMBS];
+
+    private int myCell;
+    private int myRange;
+    private int myBombs;
+    private boolean alive = true;
+    private long time;
+    private double reward; // Discounted sum so far
+
+    // Blast scratch, never copied (each state is used by one thread)
+    private byte[] blast;
+    private final boolean[] done = new boolean[MAX_BOMBS];
+    private final int[] queue = new int[MAX_BOMBS];
+
+    private PlanState(GameMap map, long stepMs, long bombLifeMs) {
+        this.map = map;
+        this.stepMs = stepMs;
+        this.bombLifeMs = bombLifeMs;
+    }
+
+    // Root state from a snapshot; null when we are not on the map - O(map + bombs + bombers)
+    public static PlanState from(GameSnapshot snapshot, long now) {
+        GameMap map = snapshot.getGameMap();
+        BomberTable bombers = snapshot.getBomberTable();
+        int me = snapshot.getMySlot();
+        if (!map.isLoaded() || !bombers.isAlive(me)) return null;
+        int myCell = map.cellAt(bombers.x(me), bombers.y(me));
+        if (myCell < 0) return null;
+
+        double speed = Math.max(0.1, bombers.speed(me));
+        long stepMs = (long) Math.ceil(map.getTileSize() / speed * DecisionScheduler.SERVER_FRAME_MS);
+        long bombLife = DEFAULT_BOMB_LIFE_MS;
+        for (Bomb bomb : snapshot.getBombs().values()) {
+            bombLife = bomb.lifeTime; // Server uses one fuse length for every bomb
+            break;
+        }
+
+        PlanState s = new PlanState(map, stepMs, bombLife);
+        int cells = map.getCellCount();
+        s.tiles = new byte[cells];
+        for (int cell = 0; cell < cells; cell++) s.tiles[cell] = (byte) map.getTile(cell);
+        s.items = new byte[cells];
+        CoordMap<Item> itemMap = snapshot.getItems();
+        for (int slot = 0; slot < itemMap.capacity(); slot++) {
+            Item item = itemMap.valueAt(slot);
+            if (item == null) continue;
+            int cell = map.cellAt(item.x, item.y);
+            if (cell >= 0) s.items[cell] = itemCode(item.type);
+        }
+
+        int[] enemies = new int[bombers.size()];
+        int n = 0;
+        for (int slot = 0; slot < bombers.size(); slot++) {
+            if (slot == me || !bombers.isAlive(slot)) continue;
+            int cell = map.cellAt(bombers.x(slot), bombers.y(slot));
+            if (cell >= 0) enemies[n++] = cell;
+        }
+        s.enemyCells = Arrays.copyOf(enemies, n);
+
+        DetonationTimeline timeline = snapshot.getDetonationTimeline(); // Chain-adjusted fuses
+        String myUid = bombers.uid(me);
+        for (Bomb bomb : snapshot.getBombs().values()) {
+            int cell = map.cellAt(bomb.x, bomb.y);
+            if (cell < 0 || s.bombTotal == MAX_BOMBS) continue;
+            long at = timeline.detonationTime(bomb.id);
+            if (at == DetonationTimeline.NEVER) at = bomb.createdAt + bomb.lifeTime;
+            s.addBomb(cell, Math.max(0, at - now), Math.max(0, bomb.range), myUid.equals(bomb.uid));
+        }
+
+        s.myCell = myCell;
+        s.myRange = bombers.range(me);
+        s.myBombs = bombers.bombCount(me);
+        return s;
+    }
+
+    private static byte itemCode(String type) {
+        if ("SPEED".equals(type)) return ITEM_SPEED;
+        if ("EXPLOSION_RANGE".equals(type)) return ITEM_RANGE;
+        if ("BOMB_COUNT".equals(type)) return ITEM_BOMBS;
+        return 0;
+    }
+
+    public PlanState copy() {
+        PlanState c = new PlanState(map, stepMs, bombLifeMs);
+        c.tiles = new byte[tiles.length];
+        c.items = new byte[items.length];
+        c.enemyCells = new int[enemyCells.length];
+        copyTo(c);
+        return c;
+    }
+
+    // Overwrite a copy of this state in place, so a search reuses one working state - O(map)
+    public void copyTo(PlanState c) {
+        System.arraycopy(tiles, 0, c.tiles, 0, tiles.length);
+        System.arraycopy(items, 0, c.items, 0, items.length);
+        System.arraycopy(enemyCells, 0, c.enemyCells, 0, enemyCells.length);
+        c.bombTotal = bombTotal;
+        System.arraycopy(bombCells, 0, c.bombCells, 0, bombTotal);
+        System.arraycopy(bombTimes, 0, c.bombTimes, 0, bombTotal);
+        System.arraycopy(bombRanges, 0, c.bombRanges, 0, bombTotal);
+        System.arraycopy(bombMine, 0, c.bombMine, 0, bombTotal);
+        c.myCell = myCell;
+        c.myRange = myRange;
+        c.myBombs = myBombs;
+        c.alive = alive;
+        c.time = time;
+        c.reward = reward;
+    }
+
+    // --- Queries ---
+    public boolean isAlive() {
+        return alive;
+    }
+
+    public double getReward() {
+        return reward;
+    }
+
+    public int getMyCell() {
+        return myCell;
+    }
+
+    public boolean isLegal(int action) {
+        if (action == ACTION_WAIT) return true;
+        if (action == ACTION_BOMB) return myBombs > 0 && bombTotal < MAX_BOMBS && bombAt(myCell) < 0;
+        int next = map.neighbor(myCell, action);
+        return next >= 0 && tiles[next] == GameMap.TILE_EMPTY && bombAt(next) < 0;
+    }
+
+    // Cell the action leaves us on (the current cell for BOMB and WAIT)
+    public int targetCell(int action) {
+        return action < ACTION_BOMB ? map.neighbor(myCell, action) : myCell;
+    }
+
+    // Whether any pending bomb's blast would reach the cell on the current tiles - O(bombs * range)
+    public boolean isThreatened(int cell) {
+        for (int b = 0; b < bombTotal; b++) {
+            if (reaches(bombCells[b], bombRanges[b], cell)) return true;
+        }
+        return false;
+    }
+
+    private boolean reaches(int center, int range, int cell) {
+        if (center == cell) return true;
+        for (int dir = 0; dir < 4; dir++) {
+            int current = center;
+            for (int i = 1; i <= range; i++) {
+                current = map.neighbor(current, dir);
+                if (current < 0 || tiles[current] == GameMap.TILE_WALL) break;
+                if (current == cell) return true;
+                if (tiles[current] == GameMap.TILE_CHEST) break;
+            }
+        }
+        return false;
+    }
+
+    // --- Transition ---
+    // Apply one action, advance one tile step and resolve due blasts; discount weights the step's reward
+    public void step(int action, double discount) {
+        if (!alive) return;
+        if (action == ACTION_BOMB) {
+            if (isLegal(ACTION_BOMB)) {
+                addBomb(myCell, time + bombLifeMs, myRange, true);
+                myBombs--;
+            }
+        } else if (action < ACTION_BOMB && isLegal(action)) {
+            myCell = map.neighbor(myCell, action);
+            pickUp(discount);
+        }
+        time += stepMs;
+        explodeDue(discount);
+    }
+
+    // End-of-horizon estimate: standing in a pending blast is most of a death
+    public void finish(double discount) {
+        if (alive && isThreatened(myCell)) reward += discount * DEATH_PENALTY * 0.5;
+    }
+
+    private void pickUp(double discount) {
+        byte item = items[myCell];
+        if (item == 0) return;
+        items[myCell] = 0;
+        if (item == ITEM_RANGE) myRange++;
+        else if (item == ITEM_BOMBS) myBombs++;
+        reward += discount * ITEM_REWARD;
+    }
+
+    private void addBomb(int cell, long at, int range, boolean mine) {
+        int b = bombTotal++;
+        bombCells[b] = cell;
+        bombTimes[b] = at;
+        bombRanges[b] = range;
+        bombMine[b] = mine;
+    }
+
+    private int bombAt(int cell) {
+        for (int b = 0; b < bombTotal; b++) {
+            if (bombCells[b] == cell) return b;
+        }
+        return -1;
+    }
+
+    // Detonate every bomb due by now plus everything they chain into
+    private void explodeDue(double discount) {
+        boolean any = false;
+        for (int b = 0; b < bombTotal; b++) {
+            if (bombTimes[b] <= time) {
+                any = true;
+                break;
+            }
+        }
+        if (!any) return;
+
+        int cells = tiles.length;
+        if (blast == null) blast = new byte[cells];  // 1 = hit by anyone, 2 = hit by one of our bombs
+        else Arrays.fill(blast, (byte) 0);
+        int head = 0;
+        int tail = 0;
+        for (int b = 0; b < bombTotal; b++) {
+            done[b] = bombTimes[b] <= time;
+            if (done[b]) queue[tail++] = b;
+        }
+        while (head < tail) {
+            int b = queue[head++];
+            byte mark = bombMine[b] ? (byte) 2 : (byte) 1;
+            tail = hit(bombCells[b], mark, tail);
+            for (int dir = 0; dir < 4; dir++) {
+                int current = bombCells[b];
+                for (int i = 1; i <= bombRanges[b]; i++) {
+                    current = map.neighbor(current, dir);
+                    if (current < 0 || tiles[current] == GameMap.TILE_WALL) break;
+                    tail = hit(current, mark, tail);
+                    if (tiles[current] == GameMap.TILE_CHEST) break;
+                }
+            }
+            if (bombMine[b]) myBombs++;
+        }
+
+        // Damage is applied once, after every blast of this step is known
+        for (int cell = 0; cell < cells; cell++) {
+            if (blast[cell] == 0 || tiles[cell] != GameMap.TILE_CHEST) continue;
+            tiles[cell] = GameMap.TILE_EMPTY;
+            if (blast[cell] == 2) reward += discount * CHEST_REWARD;
+        }
+        for (int e = 0; e < enemyCells.length; e++) {
+            int cell = enemyCells[e];
+            if (cell < 0 || blast[cell] == 0) continue;
+            enemyCells[e] = -1;
+            if (blast[cell] == 2) reward += discount * ENEMY_REWARD;
+        }
+        if (blast[myCell] != 0) {
+            alive = false;
+            reward += discount * DEATH_PENALTY;
+        }
+
+        int kept = 0;
+        for (int b = 0; b < bombTotal; b++) {
+            if (done[b]) continue;
+            bombCells[kept] = bombCells[b];
+            bombTimes[kept] = bombTimes[b];
+            bombRanges[kept] = bombRanges[b];
+            bombMine[kept] = bombMine[b];
+            kept++;
+        }
+        bombTotal = kept;
+    }
+
+    private int hit(int cell, byte mark, int tail) {
+        if (blast[cell] < mark) blast[cell] = mark;
+        for (int b = 0; b < bombTotal; b++) {
+            if (!done[b] && bombCells[b] == cell) { // Chain reaction
+                done[b] = true;
+                queue[tail++] = b;
+            }
+        }
+        return tail;
+    }
+}
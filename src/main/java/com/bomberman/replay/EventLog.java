@@ -0,0 +1,22 @@
+package com.bomberman.replay;
+
+// Layout of a recorded session (big-endian):
+//   header: int MAGIC, short VERSION, long start time (epoch ms)
+//   record: long receive offset (ns since start), byte event code, [short length + UTF-8 name
+//           when the code is CUSTOM_EVENT], byte payload kind, int length + UTF-8 JSON payload
+// Event codes are indexes into EventApplier.EVENTS.
+final class EventLog {
+    static final int MAGIC = 0x424D5245; // "BMRE"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 4 + 2 + 8;
+
+    static final byte CUSTOM_EVENT = -1;
+
+    static final byte PAYLOAD_NONE = 0;
+    static final byte PAYLOAD_OBJECT = 1;
+    static final byte PAYLOAD_ARRAY = 2;
+    static final byte PAYLOAD_TEXT = 3;
+
+    private EventLog() {
+    }
+}
@@ -0,0 +1,96 @@
+package com.bomberman.replay;
+
+import com.bomberman.engine.EventApplier;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+// Append-only binary log of every incoming server event with its receive time (see EventLog).
+// Called first thing in each socket listener; buffered writes, flushed at most once a second.
+public class EventRecorder implements Closeable {
+    private static final long FLUSH_INTERVAL_NS = 1_000_000_000L;
+
+    private final DataOutputStream out;
+    private final long baseNanos; // nanoTime of the header's start time
+    private long lastFlush;
+    private long records;
+
+    public EventRecorder(File file) throws IOException {
+        long startMs;
+        if (file.length() >= EventLog.HEADER_BYTES) {
+            startMs = readStart(file); // Keep appending to an existing session log
+        } else {
+            startMs = System.currentTimeMillis();
+        }
+        baseNanos = System.nanoTime() - (System.currentTimeMillis() - startMs) * 1_000_000L;
+
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true), 1 << 16));
+        if (file.length() < EventLog.HEADER_BYTES) {
+            out.writeInt(EventLog.MAGIC);
+            out.writeShort(EventLog.VERSION);
+            out.writeLong(startMs);
+        }
+        lastFlush = System.nanoTime();
+    }
+
+    private static long readStart(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != EventLog.MAGIC) throw new IOException("Not an event log: " + file);
+            short version = in.readShort();
+            if (version != EventLog.VERSION) throw new IOException("Unsupported event log version " + version);
+            return in.readLong();
+        }
+    }
+
+    public synchronized void record(String event, Object[] args) {
+        long now = System.nanoTime();
+        Object payload = args != null && args.length > 0 ? args[0] : null;
+        try {
+            out.writeLong(now - baseNanos);
+            int code = EventApplier.codeOf(event);
+            if (code >= 0) {
+                out.writeByte(code);
+            } else {
+                out.writeByte(EventLog.CUSTOM_EVENT);
+                writeBytes(event.getBytes(StandardCharsets.UTF_8), true);
+            }
+            if (payload == null) {
+                out.writeByte(EventLog.PAYLOAD_NONE);
+                out.writeInt(0);
+            } else {
+                byte kind = payload instanceof JSONObject ? EventLog.PAYLOAD_OBJECT
+                        : payload instanceof JSONArray ? EventLog.PAYLOAD_ARRAY : EventLog.PAYLOAD_TEXT;
+                out.writeByte(kind);
+                writeBytes(payload.toString().getBytes(StandardCharsets.UTF_8), false);
+            }
+            records++;
+            if (now - lastFlush >= FLUSH_INTERVAL_NS) {
+                out.flush();
+                lastFlush = now;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void writeBytes(byte[] bytes, boolean shortLength) throws IOException {
+        if (shortLength) out.writeShort(bytes.length);
+        else out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
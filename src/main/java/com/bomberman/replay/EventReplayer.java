@@ -0,0 +1,136 @@
+package com.bomberman.replay;
+
+import com.bomberman.engine.EventApplier;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+// Reads an EventRecorder log through a memory-mapped window and hands every event to a handler,
+// either as fast as possible or paced by the original receive times.
+public class EventReplayer implements Closeable {
+    private static final long WINDOW_BYTES = 64L << 20; // Remapped as the cursor moves, so any file size works
+
+    public interface Handler {
+        void onEvent(long offsetNanos, String event, Object payload);
+    }
+
+    private final FileChannel channel;
+    private final long size;
+    private final long startMillis;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    public EventReplayer(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        size = channel.size();
+        if (!ensure(EventLog.HEADER_BYTES) || window.getInt() != EventLog.MAGIC) {
+            channel.close();
+            throw new IOException("Not an event log: " + file);
+        }
+        short version = window.getShort();
+        if (version != EventLog.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported event log version " + version);
+        }
+        startMillis = window.getLong();
+        position = EventLog.HEADER_BYTES;
+    }
+
+    // Epoch ms of the first record's time base
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    // Feed every record to the handler; returns how many were replayed.
+    // A record cut short by a crash ends the replay instead of failing it.
+    public long replay(Handler handler, boolean realtime) throws IOException {
+        return replay(handler, realtime, true);
+    }
+
+    // With decodeObjects false, object payloads are handed over as raw JSON text
+    // (for EventApplier.applyJson) instead of being parsed into a JSONObject
+    public long replay(Handler handler, boolean realtime, boolean decodeObjects) throws IOException {
+        long count = 0;
+        long replayStart = System.nanoTime();
+        long firstOffset = -1; // Pace relative to the first record, not the header time
+        while (true) {
+            if (!ensure(8 + 1)) break;
+            long offset = window.getLong();
+            byte code = window.get();
+            position += 9;
+
+            String event;
+            if (code == EventLog.CUSTOM_EVENT) {
+                if (!ensure(2)) break;
+                int length = window.getShort() & 0xFFFF;
+                position += 2;
+                if (!ensure(length)) break;
+                event = readString(length);
+            } else if (code >= 0 && code < EventApplier.EVENTS.length) {
+                event = EventApplier.EVENTS[code];
+            } else {
+                throw new IOException("Unknown event code " + code + " at byte " + (position - 1));
+            }
+
+            if (!ensure(1 + 4)) break;
+            byte kind = window.get();
+            int length = window.getInt();
+            position += 5;
+            if (!ensure(length)) break;
+            String text = readString(length);
+
+            if (firstOffset < 0) firstOffset = offset;
+            if (realtime) {
+                long wait = offset - firstOffset - (System.nanoTime() - replayStart);
+                if (wait > 0) LockSupport.parkNanos(wait);
+            }
+            Object payload = !decodeObjects && kind == EventLog.PAYLOAD_OBJECT ? text : decode(kind, text);
+            handler.onEvent(offset, event, payload);
+            count++;
+        }
+        return count;
+    }
+
+    private static Object decode(byte kind, String text) {
+        switch (kind) {
+            case EventLog.PAYLOAD_OBJECT: return new JSONObject(text);
+            case EventLog.PAYLOAD_ARRAY: return new JSONArray(text);
+            case EventLog.PAYLOAD_TEXT: return text;
+            default: return null;
+        }
+    }
+
+    private String readString(int length) {
+        byte[] bytes = new byte[length];
+        window.get(bytes);
+        position += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Make the next n bytes readable from the window, remapping at the cursor if needed
+    private boolean ensure(int n) throws IOException {
+        if (position + n > size) return false;
+        if (window != null && position + n <= windowStart + window.limit()) {
+            window.position((int) (position - windowStart));
+            return true;
+        }
+        windowStart = position;
+        long length = Math.min(size - position, Math.max(WINDOW_BYTES, n));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
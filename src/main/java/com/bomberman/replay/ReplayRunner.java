@@ -0,0 +1,103 @@
+package com.bomberman.replay;
+
+import com.bomberman.engine.*;
+
+import java.io.File;
+import java.util.Arrays;
+
+// Replays a recorded session into a fresh GameState and runs the decision logic the way the
+// live bot would (after every event that signals the decision loop), without a server.
+// Usage: ReplayRunner <log file> [--realtime] [--verbose] [--tree]
+// Payloads are bound with the streaming binder; --tree parses them into JSONObjects like the socket does.
+public class ReplayRunner implements EventReplayer.Handler, CommandSink {
+    private final GameState gameState = new GameState();
+    private final EventApplier applier = new EventApplier(gameState);
+    private final BotController controller = new BotController(this);
+    private final long startMillis;
+    private long now; // Receive time of the event being replayed, epoch ms
+
+    private long[] latencies = new long[1024];
+    private int decisions;
+    private int moves;
+    private int bombs;
+    private int errors;
+
+    // Both clocks run on the recording's time base, so bomb timers (server createdAt) and enemy
+    // motion compare against the time the event arrived, not the time of the replay
+    public ReplayRunner(long startMillis, boolean verbose) {
+        this.startMillis = startMillis;
+        now = startMillis;
+        applier.setVerbose(verbose);
+        controller.setVerbose(verbose);
+        gameState.setClock(() -> now);
+        controller.setClock(() -> now);
+    }
+
+    @Override
+    public void onEvent(long offsetNanos, String event, Object payload) {
+        now = startMillis + offsetNanos / 1_000_000;
+        boolean signal;
+        try {
+            signal = payload instanceof String
+                    ? applier.applyJson(event, (String) payload)
+                    : applier.apply(event, payload);
+        } catch (Exception e) {
+            errors++; // Same as a listener: log and keep going
+            e.printStackTrace();
+            return;
+        }
+        if (!signal) return;
+
+        GameSnapshot state = gameState.snapshot();
+        if (!state.isGameStarted()) return;
+        long start = System.nanoTime();
+        controller.decide(state);
+        long elapsed = System.nanoTime() - start;
+        if (decisions == latencies.length) {
+            latencies = Arrays.copyOf(latencies, decisions * 2);
+        }
+        latencies[decisions++] = elapsed;
+    }
+
+    @Override
+    public void move(String direction) {
+        moves++;
+    }
+
+    @Override
+    public void placeBomb() {
+        bombs++;
+    }
+
+    private void report(long events, long wallNs) {
+        long[] sorted = Arrays.copyOf(latencies, decisions);
+        Arrays.sort(sorted);
+        System.out.println("Events: " + events + " (" + errors + " failed) in " + wallNs / 1_000_000 + " ms, "
+                + String.format("%.0f", events * 1e9 / Math.max(1, wallNs)) + " events/s");
+        System.out.println("Decisions: " + decisions + ", commands: " + moves + " moves, " + bombs + " bombs");
+        if (decisions > 0) {
+            System.out.println(String.format("Decision latency p50 %.1f us, p99 %.1f us, max %.1f us",
+                    sorted[decisions / 2] / 1000.0, sorted[Math.min(decisions - 1, (int) (decisions * 0.99))] / 1000.0,
+                    sorted[decisions - 1] / 1000.0));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayRunner <log file> [--realtime] [--verbose] [--tree]");
+            System.exit(1);
+        }
+        boolean realtime = Arrays.asList(args).contains("--realtime");
+        boolean verbose = Arrays.asList(args).contains("--verbose");
+        boolean tree = Arrays.asList(args).contains("--tree");
+
+        long start = System.nanoTime();
+        long events;
+        ReplayRunner runner;
+        try (EventReplayer replayer = new EventReplayer(new File(args[0]))) {
+            runner = new ReplayRunner(replayer.getStartMillis(), verbose);
+            events = replayer.replay(runner, realtime, tree);
+        }
+        runner.report(events, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,424 @@
+package com.bomberman.sim;
+
+import com.bomberman.engine.*;
+import com.bomberman.model.*;
+import com.bomberman.planner.MctsPlanner;
+
+import java.util.*;
+
+// Headless, deterministic game: the server's rules run in-process on a simulated clock.
+// Every bot keeps its own GameState, fed through the same mutators the socket listeners use,
+// and decides with the production BotController. Same seed + same config = same game.
+//
+// Rules modelled: tile-locked movement at `speed` pixels per frame (one move = one tile step,
+// a command issued mid-step is buffered), bombs block movement, cross-shaped blasts stopped by
+// walls and chests, chain reactions, chest destruction with random item drops, item pickup
+// and death in a blast.
+public class GameSimulator {
+    public static final int TILE = 40;
+    private static final String[] ITEM_TYPES = {"SPEED", "EXPLOSION_RANGE", "BOMB_COUNT"};
+
+    private final SimConfig config;
+    private final long seed;
+    private final Random random;
+    private final GameMap map = new GameMap(); // Authoritative tiles
+    private final List<Seat> seats = new ArrayList<>();
+    private final Map<Integer, Bomb> bombs = new LinkedHashMap<>(); // Insertion order keeps chains deterministic
+    private int[] bombAt;     // Bomb id per cell, -1 when empty
+    private Item[] itemAt;
+    private int nextBombId = 1;
+    private long frame;
+    private long now;
+
+    private long[] decisionNanos = new long[4096];
+    private int decisions;
+
+    // One player: authoritative bomber plus the bot's private view of the game
+    private final class Seat implements CommandSink {
+        final int index;
+        final Bomber bomber;
+        final GameState view = new GameState();
+        final BotController controller = new BotController(this);
+        double px, py;          // Exact pixel center
+        int stepTarget = -1;    // Cell being walked into, -1 when standing on a tile center
+        int stepDir = -1;
+        int queuedDir = -1;
+        boolean signalled = true;
+        long nextDecisionAt;
+        int kills;
+        int suicides;
+        int bombsPlaced;
+
+        Seat(int index, int cell) {
+            this.index = index;
+            px = map.centerX(cell);
+            py = map.centerY(cell);
+            bomber = new Bomber("sim-" + index, (int) px, (int) py);
+            bomber.speed = config.startSpeed;
+            bomber.explosionRange = config.startRange;
+            bomber.bombCount = config.startBombs;
+            controller.setVerbose(false);
+            controller.setClock(() -> now);
+            view.setClock(() -> now);
+            if (index < config.plannerSeats) {
+                // No deadline and a seed from the game's: the search does not depend on machine load
+                controller.setPlanner(new MctsPlanner(0, config.planWorkers, 12, config.planIterations,
+                        seed * 31 + index));
+            }
+        }
+
+        int cell() {
+            return map.cellAt(px, py);
+        }
+
+        @Override
+        public void move(String direction) {
+            int dir = Arrays.asList(GameMap.DIR_NAMES).indexOf(direction);
+            if (dir < 0 || !bomber.isAlive) return;
+            bomber.orient = direction;
+            if (stepTarget < 0) {
+                startStep(this, dir);
+            } else if (dir == (stepDir ^ 1)) {
+                // Turning around mid-step walks back to the tile we came from
+                stepTarget = map.neighbor(stepTarget, dir);
+                stepDir = dir;
+                queuedDir = -1;
+            } else {
+                queuedDir = dir;
+            }
+        }
+
+        @Override
+        public void placeBomb() {
+            int cell = cell();
+            if (!bomber.isAlive || bomber.bombCount <= 0 || cell < 0 || bombAt[cell] >= 0) return;
+            dropBomb(this, cell);
+        }
+    }
+
+    public GameSimulator(SimConfig config, long seed) {
+        this.config = config;
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    public SimResult run() {
+        setup();
+        long limitFrames = (long) Math.ceil(config.maxGameMs / DecisionScheduler.SERVER_FRAME_MS);
+        while (frame < limitFrames && aliveCount() > 1) {
+            step(true);
+        }
+        return result();
+    }
+
+    // One server frame: movement, then explosions, then (when enabled) the bots' decisions
+    void step(boolean decide) {
+        frame++;
+        now = Math.round(frame * DecisionScheduler.SERVER_FRAME_MS);
+        for (Seat seat : seats) {
+            if (seat.bomber.isAlive) advance(seat);
+        }
+        explodeDueBombs();
+        if (!decide) return;
+        for (Seat seat : seats) {
+            if (seat.bomber.isAlive) maybeDecide(seat);
+        }
+    }
+
+    SimResult result() {
+        int winner = -1;
+        if (aliveCount() == 1) {
+            for (Seat seat : seats) {
+                if (seat.bomber.isAlive) winner = seat.index;
+            }
+        }
+        int[] kills = new int[seats.size()];
+        int[] placed = new int[seats.size()];
+        int[] suicides = new int[seats.size()];
+        for (Seat seat : seats) {
+            kills[seat.index] = seat.kills;
+            placed[seat.index] = seat.bombsPlaced;
+            suicides[seat.index] = seat.suicides;
+        }
+        return new SimResult(seed, winner, now, kills, placed, suicides, Arrays.copyOf(decisionNanos, decisions), decisions);
+    }
+
+    // --- Setup ---
+    void setup() {
+        int size = config.mapSize;
+        byte[] tiles = new byte[size * size];
+        int[] spawns = {cell(1, 1), cell(size - 2, size - 2), cell(1, size - 2), cell(size - 2, 1)};
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                boolean border = r == 0 || c == 0 || r == size - 1 || c == size - 1;
+                boolean pillar = r % 2 == 0 && c % 2 == 0;
+                if (border || pillar) {
+                    tiles[cell(r, c)] = GameMap.TILE_WALL;
+                } else if (!nearSpawn(r, c, size) && random.nextDouble() < config.chestDensity) {
+                    tiles[cell(r, c)] = GameMap.TILE_CHEST;
+                }
+            }
+        }
+        map.loadTiles(tiles, size, size);
+        bombAt = new int[tiles.length];
+        Arrays.fill(bombAt, -1);
+        itemAt = new Item[tiles.length];
+
+        int players = Math.max(2, Math.min(4, config.players));
+        for (int i = 0; i < players; i++) {
+            seats.add(new Seat(i, spawns[i]));
+        }
+
+        List<Chest> chests = new ArrayList<>();
+        for (int cell = 0; cell < tiles.length; cell++) {
+            if (tiles[cell] == GameMap.TILE_CHEST) {
+                chests.add(new Chest(map.colOf(cell) * TILE, map.rowOf(cell) * TILE, TILE));
+            }
+        }
+        // Same sequence the "user" listener runs on join
+        for (Seat seat : seats) {
+            GameState view = seat.view;
+            view.loadMap(tiles, size, size);
+            List<Bomber> bombers = new ArrayList<>();
+            for (Seat other : seats) bombers.add(other.bomber);
+            view.setBombers(bombers); // Fields are copied into the view's bomber table
+            view.setMyUid(seat.bomber.uid);
+            view.setChests(copyChests(chests));
+            view.setGameStarted(true);
+        }
+    }
+
+    private int cell(int row, int col) {
+        return row * config.mapSize + col;
+    }
+
+    // Corners stay clear so every bomber can place its first bomb and escape
+    private static boolean nearSpawn(int r, int c, int size) {
+        int dr = Math.min(r - 1, size - 2 - r);
+        int dc = Math.min(c - 1, size - 2 - c);
+        return dr + dc <= 1;
+    }
+
+    private static List<Chest> copyChests(List<Chest> chests) {
+        List<Chest> copy = new ArrayList<>(chests.size());
+        for (Chest chest : chests) copy.add(new Chest(chest.x, chest.y, chest.size));
+        return copy;
+    }
+
+    // --- Movement ---
+    private void startStep(Seat seat, int dir) {
+        int from = seat.cell();
+        int next = from >= 0 ? map.neighbor(from, dir) : -1;
+        if (next < 0 || !map.isWalkable(next) || bombAt[next] >= 0) return;
+        seat.stepTarget = next;
+        seat.stepDir = dir;
+    }
+
+    // Move one frame toward the step target - O(1)
+    private void advance(Seat seat) {
+        if (seat.stepTarget < 0) {
+            if (seat.queuedDir >= 0) {
+                int dir = seat.queuedDir;
+                seat.queuedDir = -1;
+                startStep(seat, dir);
+            }
+            if (seat.stepTarget < 0) return;
+        }
+        double tx = map.centerX(seat.stepTarget);
+        double ty = map.centerY(seat.stepTarget);
+        double dx = tx - seat.px;
+        double dy = ty - seat.py;
+        double dist = Math.abs(dx) + Math.abs(dy);
+        double speed = seat.bomber.speed;
+        if (dist <= speed) {
+            seat.px = tx;
+            seat.py = ty;
+            seat.stepTarget = -1;
+            seat.signalled = true; // Own move acknowledged
+            collectItem(seat);
+        } else {
+            seat.px += Math.signum(dx) * speed;
+            seat.py += Math.signum(dy) * speed;
+        }
+        seat.bomber.x = (int) Math.round(seat.px);
+        seat.bomber.y = (int) Math.round(seat.py);
+        broadcastBomber(seat);
+    }
+
+    private void collectItem(Seat seat) {
+        int cell = seat.cell();
+        Item item = cell >= 0 ? itemAt[cell] : null;
+        if (item == null) return;
+        itemAt[cell] = null;
+        Bomber b = seat.bomber;
+        switch (item.type) {
+            case "SPEED":
+                if (b.speedCount < config.maxSpeedCount) {
+                    b.speedCount++;
+                    b.speed += 1;
+                }
+                break;
+            case "EXPLOSION_RANGE": b.explosionRange++; break;
+            case "BOMB_COUNT": b.bombCount++; break;
+        }
+        for (Seat other : seats) other.view.removeItem(item.x, item.y);
+        broadcastBomber(seat);
+    }
+
+    // --- Bombs ---
+    private void dropBomb(Seat seat, int cell) {
+        Bomber bomber = seat.bomber;
+        Bomb bomb = new Bomb(nextBombId++, bomber.uid, map.centerX(cell), map.centerY(cell),
+                config.bombLifeMs, now);
+        bomb.range = bomber.explosionRange;
+        bombs.put(bomb.id, bomb);
+        bombAt[cell] = bomb.id;
+        bomber.bombCount--;
+        seat.bombsPlaced++;
+        for (Seat other : seats) {
+            Bomb copy = new Bomb(bomb.id, bomb.uid, bomb.x, bomb.y, bomb.lifeTime, bomb.createdAt);
+            copy.range = bomb.range;
+            other.view.addBomb(copy);
+            other.signalled = true;
+        }
+        broadcastBomber(seat);
+    }
+
+    // Detonate expired bombs and everything their blasts reach, then apply the damage once
+    private void explodeDueBombs() {
+        ArrayDeque<Bomb> queue = new ArrayDeque<>();
+        for (Bomb bomb : bombs.values()) {
+            if (now >= bomb.createdAt + bomb.lifeTime) queue.add(bomb);
+        }
+        if (queue.isEmpty()) return;
+
+        BlastRayTable rays = map.getRays();
+        int[] ray = new int[Math.max(map.getMapWidth(), map.getMapHeight())];
+        boolean[] blasted = new boolean[map.getCellCount()];
+        Map<Integer, String> blastOwner = new HashMap<>(); // First bomb owner to reach a cell gets the kill
+        Set<Integer> detonated = new LinkedHashSet<>();
+        while (!queue.isEmpty()) {
+            Bomb bomb = queue.poll();
+            if (!detonated.add(bomb.id)) continue;
+            int range = bomb.range;
+            int center = map.cellAt(bomb.x, bomb.y);
+            mark(center, bomb, blasted, blastOwner, queue);
+            for (int dir = 0; dir < 4; dir++) {
+                int n = rays.walkRay(center, dir, range, ray);
+                for (int i = 0; i < n; i++) mark(ray[i], bomb, blasted, blastOwner, queue);
+            }
+        }
+
+        for (int id : detonated) {
+            Bomb bomb = bombs.remove(id);
+            bombAt[map.cellAt(bomb.x, bomb.y)] = -1;
+            Seat owner = seatByUid(bomb.uid);
+            if (owner != null) owner.bomber.bombCount++;
+            for (Seat seat : seats) {
+                seat.view.removeBomb(id);
+                seat.signalled = true;
+            }
+            if (owner != null) broadcastBomber(owner);
+        }
+
+        for (int cell = 0; cell < blasted.length; cell++) {
+            if (blasted[cell] && map.isChest(cell)) destroyChest(cell);
+        }
+        for (Seat seat : seats) {
+            int cell = seat.cell();
+            if (!seat.bomber.isAlive || cell < 0 || !blasted[cell]) continue;
+            seat.bomber.isAlive = false;
+            Seat killer = seatByUid(blastOwner.get(cell));
+            if (killer != null && killer != seat) killer.kills++;
+            if (killer == seat) seat.suicides++;
+            for (Seat other : seats) other.view.removeBomber(seat.bomber.uid);
+        }
+    }
+
+    private void mark(int cell, Bomb bomb, boolean[] blasted, Map<Integer, String> blastOwner, ArrayDeque<Bomb> queue) {
+        if (!blasted[cell]) {
+            blasted[cell] = true;
+            blastOwner.put(cell, bomb.uid);
+        }
+        int other = bombAt[cell];
+        if (other >= 0 && other != bomb.id) queue.add(bombs.get(other));
+    }
+
+    private void destroyChest(int cell) {
+        map.setTile(cell, GameMap.TILE_EMPTY);
+        int x = map.colOf(cell) * TILE;
+        int y = map.rowOf(cell) * TILE;
+        Item drop = null;
+        if (random.nextDouble() < config.itemDropChance) {
+            drop = new Item(ITEM_TYPES[random.nextInt(ITEM_TYPES.length)], x, y);
+            itemAt[cell] = drop;
+        }
+        for (Seat seat : seats) {
+            seat.view.removeChest(x, y);
+            if (drop != null) seat.view.addItem(new Item(drop.type, drop.x, drop.y));
+            seat.signalled = true;
+        }
+    }
+
+    // --- Decisions ---
+    // Mirrors DecisionScheduler: run on a signal, otherwise when the fallback timer is due
+    private void maybeDecide(Seat seat) {
+        if (!seat.signalled && now < seat.nextDecisionAt) return;
+        seat.signalled = false;
+
+        GameSnapshot state = seat.view.snapshot();
+        long start = System.nanoTime();
+        seat.controller.decide(state);
+        recordLatency(System.nanoTime() - start);
+
+        long delay = seat.controller.nextDecisionDelayMs(state);
+        seat.nextDecisionAt = now + Math.max(DecisionScheduler.MIN_DELAY_MS, Math.min(DecisionScheduler.MAX_DELAY_MS, delay));
+    }
+
+    private void recordLatency(long nanos) {
+        if (decisions == decisionNanos.length) {
+            decisionNanos = Arrays.copyOf(decisionNanos, decisions * 2);
+        }
+        decisionNanos[decisions++] = nanos;
+    }
+
+    // --- Helpers ---
+    // The views copy the fields into their bomber tables, so no per-view Bomber is needed
+    private void broadcastBomber(Seat seat) {
+        for (Seat other : seats) other.view.updateBomber(seat.bomber);
+    }
+
+    private Seat seatByUid(String uid) {
+        if (uid == null) return null;
+        for (Seat seat : seats) {
+            if (seat.bomber.uid.equals(uid)) return seat;
+        }
+        return null;
+    }
+
+    // --- Scripted scenarios (tests): setup(), then plant bombs and step(false) ---
+    // Bomb owned by a seat on any empty cell, whatever the seat's position and bomb count
+    void plantBomb(int seatIndex, int row, int col) {
+        dropBomb(seats.get(seatIndex), cell(row, col));
+    }
+
+    boolean isAlive(int seatIndex) {
+        return seats.get(seatIndex).bomber.isAlive;
+    }
+
+    int pendingBombs() {
+        return bombs.size();
+    }
+
+    long now() {
+        return now;
+    }
+
+    private int aliveCount() {
+        int alive = 0;
+        for (Seat seat : seats) {
+            if (seat.bomber.isAlive) alive++;
+        }
+        return alive;
+    }
+}
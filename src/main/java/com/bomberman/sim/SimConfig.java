@@ -0,0 +1,36 @@
+package com.bomberman.sim;
+
+// Rules and sizing for one simulated game. Defaults follow the values the bot sees from the server.
+public class SimConfig {
+    public int mapSize = 15;              // Odd, so the pillar grid closes on the border
+    public double chestDensity = 0.5;
+    public int players = 4;               // 2..4, spawned in the corners
+    public long bombLifeMs = 5000;
+    public int startRange = 2;
+    public int startBombs = 1;
+    public double startSpeed = 1.0;       // Pixels per server frame
+    public int maxSpeedCount = 3;
+    public double itemDropChance = 0.35;
+    public long maxGameMs = 180_000;      // Draw when more than one bomber survives this long
+    public int plannerSeats = 0;          // Seats 0..n-1 decide with MctsPlanner instead of the greedy strategy
+    public int planIterations = 500;      // Per worker and decision: capped by count, not wall time, so games replay exactly
+    public int planWorkers = 1;
+
+    public SimConfig copy() {
+        SimConfig c = new SimConfig();
+        c.mapSize = mapSize;
+        c.chestDensity = chestDensity;
+        c.players = players;
+        c.bombLifeMs = bombLifeMs;
+        c.startRange = startRange;
+        c.startBombs = startBombs;
+        c.startSpeed = startSpeed;
+        c.maxSpeedCount = maxSpeedCount;
+        c.itemDropChance = itemDropChance;
+        c.maxGameMs = maxGameMs;
+        c.plannerSeats = plannerSeats;
+        c.planIterations = planIterations;
+        c.planWorkers = planWorkers;
+        return c;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bomberman.sim;
+
+// Outcome of one simulated game
+public class SimResult {
+    public final long seed;
+    public final int winner;          // Seat index of the last bomber standing, -1 for a draw
+    public final long durationMs;     // Simulated game time
+    public final int[] kills;         // Per seat
+    public final int[] bombsPlaced;   // Per seat
+    public final int[] suicides;      // Per seat: killed by its own bomb
+    public final long[] decisionNanos; // Wall-clock latency of every decision tick, all seats
+    public final int decisions;
+
+    public SimResult(long seed, int winner, long durationMs, int[] kills, int[] bombsPlaced, int[] suicides,
+                     long[] decisionNanos, int decisions) {
+        this.seed = seed;
+        this.winner = winner;
+        this.durationMs = durationMs;
+        this.kills = kills;
+        this.bombsPlaced = bombsPlaced;
+        this.suicides = suicides;
+        this.decisionNanos = decisionNanos;
+        this.decisions = decisions;
+    }
+
+    @Override
+    public String toString() {
+        return "SimResult{seed=" + seed + ", winner=" + winner + ", durationMs=" + durationMs
+                + ", decisions=" + decisions + "}";
+    }
+}
@@ -0,0 +1,94 @@
+package com.bomberman.sim;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// Runs many seeded games in parallel and reports win rate and decision latency.
+// Usage: SimulationRunner [games] [threads] [baseSeed] [mapSize] [plannerSeats] [planIterations]
+public class SimulationRunner {
+
+    public static List<SimResult> runAll(SimConfig config, int games, int threads, long baseSeed)
+            throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimResult>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                long seed = baseSeed + i;
+                futures.add(pool.submit(() -> new GameSimulator(config.copy(), seed).run()));
+            }
+            List<SimResult> results = new ArrayList<>(games);
+            for (Future<SimResult> future : futures) {
+                results.add(future.get()); // Seed order, independent of scheduling
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void report(SimConfig config, List<SimResult> results, long wallMs) {
+        int seats = Math.max(2, Math.min(4, config.players));
+        int[] wins = new int[seats];
+        int[] kills = new int[seats];
+        int[] bombs = new int[seats];
+        int[] suicides = new int[seats];
+        int draws = 0;
+        long simMs = 0;
+        long totalDecisions = 0;
+        for (SimResult result : results) {
+            if (result.winner >= 0) wins[result.winner]++;
+            else draws++;
+            simMs += result.durationMs;
+            totalDecisions += result.decisions;
+            for (int i = 0; i < seats; i++) {
+                kills[i] += result.kills[i];
+                bombs[i] += result.bombsPlaced[i];
+                suicides[i] += result.suicides[i];
+            }
+        }
+
+        long[] latencies = new long[(int) totalDecisions];
+        int n = 0;
+        for (SimResult result : results) {
+            System.arraycopy(result.decisionNanos, 0, latencies, n, result.decisions);
+            n += result.decisions;
+        }
+        Arrays.sort(latencies);
+
+        int games = results.size();
+        System.out.println("Games: " + games + " (" + draws + " draws), wall " + wallMs + " ms, "
+                + String.format("%.1f", games * 60_000.0 / Math.max(1, wallMs)) + " games/min");
+        System.out.println("Average game length: " + (games > 0 ? simMs / games : 0) + " ms simulated");
+        for (int i = 0; i < seats; i++) {
+            System.out.println(String.format("Seat %d: win rate %.1f%%, kills %d, suicides %d, bombs %.1f/game", i,
+                    games > 0 ? 100.0 * wins[i] / games : 0, kills[i], suicides[i],
+                    games > 0 ? (double) bombs[i] / games : 0));
+        }
+        System.out.println("Decisions: " + totalDecisions + ", latency p50 " + micros(percentile(latencies, 0.50))
+                + " us, p99 " + micros(percentile(latencies, 0.99)) + " us, max "
+                + micros(latencies.length > 0 ? latencies[latencies.length - 1] : 0) + " us");
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1000.0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long baseSeed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        SimConfig config = new SimConfig();
+        if (args.length > 3) config.mapSize = Integer.parseInt(args[3]);
+        if (args.length > 4) config.plannerSeats = Integer.parseInt(args[4]);
+        if (args.length > 5) config.planIterations = Integer.parseInt(args[5]);
+
+        long start = System.currentTimeMillis();
+        List<SimResult> results = runAll(config, games, threads, baseSeed);
+        report(config, results, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,81 @@
+package com.bomberman.sim;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSimulatorTest {
+
+    private static SimConfig smallConfig() {
+        SimConfig config = new SimConfig();
+        config.mapSize = 11;
+        config.maxGameMs = 30_000;
+        return config;
+    }
+
+    // Frames until the simulated clock reaches the given time
+    private static void runUntil(GameSimulator sim, long ms) {
+        while (sim.now() < ms) sim.step(false);
+    }
+
+    @Test
+    void sameSeedPlaysTheSameGame() {
+        SimConfig config = smallConfig();
+        config.plannerSeats = 1; // The planner must not depend on wall time either
+        config.planIterations = 50;
+
+        SimResult first = new GameSimulator(config.copy(), 42L).run();
+        SimResult second = new GameSimulator(config.copy(), 42L).run();
+
+        assertEquals(first.winner, second.winner);
+        assertEquals(first.durationMs, second.durationMs);
+        assertEquals(first.decisions, second.decisions);
+        assertArrayEquals(first.kills, second.kills);
+        assertArrayEquals(first.bombsPlaced, second.bombsPlaced);
+        assertArrayEquals(first.suicides, second.suicides);
+        assertTrue(first.decisions > 0);
+    }
+
+    @Test
+    void bomberInBlastDiesAndOwnerGetsTheKill() {
+        SimConfig config = smallConfig();
+        config.players = 2;
+        config.chestDensity = 0;
+        GameSimulator sim = new GameSimulator(config, 1L);
+        sim.setup();
+
+        // Seat 0 spawns at (1, 1); a range-2 bomb two tiles to its right reaches it
+        sim.plantBomb(1, 1, 3);
+        runUntil(sim, config.bombLifeMs - 100);
+        assertTrue(sim.isAlive(0));
+
+        runUntil(sim, config.bombLifeMs + 100);
+        assertFalse(sim.isAlive(0));
+        assertTrue(sim.isAlive(1));
+        assertEquals(0, sim.pendingBombs());
+        SimResult result = sim.result();
+        assertEquals(1, result.kills[1]);
+        assertEquals(0, result.suicides[1]);
+    }
+
+    @Test
+    void blastDetonatesBombsInReachAtOnce() {
+        SimConfig config = smallConfig();
+        config.players = 2;
+        config.chestDensity = 0;
+        GameSimulator sim = new GameSimulator(config, 1L);
+        sim.setup();
+
+        // Row 3 is open; the first blast reaches the second bomb, whose own fuse runs 1 s longer
+        sim.plantBomb(1, 3, 3);
+        runUntil(sim, 1000);
+        sim.plantBomb(1, 3, 5);
+        runUntil(sim, config.bombLifeMs - 100);
+        assertEquals(2, sim.pendingBombs());
+
+        runUntil(sim, config.bombLifeMs + 100);
+        assertEquals(0, sim.pendingBombs());
+        assertTrue(sim.isAlive(0)); // Out of both crosses
+        assertTrue(sim.isAlive(1));
+    }
+}